@@ -2,12 +2,16 @@ package com.spendwise.spendwise_backend;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 
 @SpringBootApplication
 public class SpendwiseBackendApplication {
 
 	public static void main(String[] args) {
-		SpringApplication.run(SpendwiseBackendApplication.class, args);
+		SpringApplication app = new SpringApplication(SpendwiseBackendApplication.class);
+		// keeps the startup steps (beans, seeding) for /actuator/startup
+		app.setApplicationStartup(new BufferingApplicationStartup(4096));
+		app.run(args);
 	}
 
 }
@@ -0,0 +1,76 @@
+package com.spendwise.spendwise_backend.config;
+
+import com.spendwise.spendwise_backend.repo.TransactionSearch;
+import com.spendwise.spendwise_backend.service.FingerprintBackfill;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Startup work that takes as long as the ledger is big. It starts once the app reports
+// ready, one step after another on a thread of its own, and the app copes until each is
+// done. /api/health shows where each step is; a step that fails runs again next start.
+// - fingerprints: rows from before content fingerprints existed are only deduped against
+//   once they have one
+// - searchIndex: the trigram index for description search; until it is built searches
+//   are scans (`search` in /api/health reads "degraded")
+@Component
+public class BackgroundMaintenance {
+
+    private final FingerprintBackfill fingerprints;
+    private final TransactionSearch search;
+    private final ExecutorService executor;
+    // step -> pending, running, done (or what it reported), failed
+    private final Map<String, String> status = Collections.synchronizedMap(new LinkedHashMap<>());
+
+    public BackgroundMaintenance(FingerprintBackfill fingerprints, TransactionSearch search) {
+        this.fingerprints = fingerprints;
+        this.search = search;
+        var threads = new CustomizableThreadFactory("spendwise-maintenance-");
+        threads.setDaemon(true);
+        this.executor = Executors.newSingleThreadExecutor(threads);
+        status.put("fingerprints", "pending");
+        status.put("searchIndex", "pending");
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // after DataInitializer (a CommandLineRunner), so raw rows are already migrated
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        executor.execute(() -> step("fingerprints", () -> {
+            fingerprints.backfill();
+            return "done";
+        }));
+        executor.execute(() -> step("searchIndex", () -> search.ensureIndex() ? "done" : "unavailable"));
+    }
+
+    public Map<String, String> status() {
+        Map<String, String> out;
+        synchronized (status) {
+            out = new LinkedHashMap<>(status);
+        }
+        out.put("search", search.indexed() ? "indexed" : "degraded");
+        return out;
+    }
+
+    private void step(String name, Supplier<String> work) {
+        status.put(name, "running");
+        try {
+            status.put(name, work.get());
+        } catch (RuntimeException e) {
+            status.put(name, "failed");
+        }
+    }
+}
@@ -1,74 +1,139 @@
 package com.spendwise.spendwise_backend.config;
 
-import com.spendwise.spendwise_backend.model.Category;
 import com.spendwise.spendwise_backend.model.CategoryGroup;
-import com.spendwise.spendwise_backend.repo.CategoryRepo;
+import com.spendwise.spendwise_backend.repo.RawRowStore;
+import com.spendwise.spendwise_backend.repo.SeedStore;
+import com.spendwise.spendwise_backend.repo.SeedStore.CategorySeed;
+import com.spendwise.spendwise_backend.repo.SeedStore.RuleSeed;
+import com.spendwise.spendwise_backend.service.CategorizationService;
+import com.spendwise.spendwise_backend.service.CategoryCache;
+import com.spendwise.spendwise_backend.service.MerchantMemo;
+import com.spendwise.spendwise_backend.service.MonthIndex;
+import com.spendwise.spendwise_backend.service.RollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.metrics.ApplicationStartup;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
 import java.util.List;
 
 @Component
 @RequiredArgsConstructor
 public class DataInitializer implements CommandLineRunner {
 
-    private final CategoryRepo categoryRepo;
+    private static final List<CategorySeed> CATEGORIES = List.of(
+            // ESSENTIAL
+            new CategorySeed("Rent", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Utilities", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Groceries", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Fuel", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Transport", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Health Insurance", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Medical", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Internet", false, CategoryGroup.ESSENTIAL),
+            new CategorySeed("Phone", false, CategoryGroup.ESSENTIAL),
+
+            // SURPLUS
+            new CategorySeed("Eating Out", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Coffee", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Shopping", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Entertainment", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Travel", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Subscriptions", false, CategoryGroup.SURPLUS),
+            new CategorySeed("Uncategorized", false, CategoryGroup.SURPLUS),
+
+            // DEBT
+            new CategorySeed("Mortgage", false, CategoryGroup.DEBT),
+            new CategorySeed("Home Loan", false, CategoryGroup.DEBT),
+            new CategorySeed("Car Loan", false, CategoryGroup.DEBT),
+            new CategorySeed("Student Loan", false, CategoryGroup.DEBT),
+            new CategorySeed("Personal Loan", false, CategoryGroup.DEBT),
+            new CategorySeed("Credit Card Payment", false, CategoryGroup.DEBT),
+            new CategorySeed("Debt Repayment", false, CategoryGroup.DEBT),
+
+            // INCOME (no group)
+            new CategorySeed("Income", true, null)
+    );
+
+    // Default keyword rules, only written into an empty table so user edits survive restarts.
+    // Within a group, earlier entries win (same order the old if-chain checked them).
+    private static final List<RuleSeed> RULES = withPriorities(List.of(
+            // DEBT
+            new Rule("mortgage", "Mortgage", CategoryGroup.DEBT),
+            new Rule("home loan", "Home Loan", CategoryGroup.DEBT),
+            new Rule("car loan", "Car Loan", CategoryGroup.DEBT),
+            new Rule("auto loan", "Car Loan", CategoryGroup.DEBT),
+            new Rule("student loan", "Student Loan", CategoryGroup.DEBT),
+            new Rule("personal loan", "Personal Loan", CategoryGroup.DEBT),
+            new Rule("credit card payment", "Credit Card Payment", CategoryGroup.DEBT),
+            new Rule("cc payment", "Credit Card Payment", CategoryGroup.DEBT),
+            new Rule("card payment", "Credit Card Payment", CategoryGroup.DEBT),
+            new Rule("emi", "Debt Repayment", CategoryGroup.DEBT),
+            new Rule("installment", "Debt Repayment", CategoryGroup.DEBT),
+
+            // ESSENTIAL
+            new Rule("uber", "Transport", CategoryGroup.ESSENTIAL),
+            new Rule("lyft", "Transport", CategoryGroup.ESSENTIAL),
+            new Rule("shell", "Fuel", CategoryGroup.ESSENTIAL),
+            new Rule("exxon", "Fuel", CategoryGroup.ESSENTIAL),
+            new Rule("whole foods", "Groceries", CategoryGroup.ESSENTIAL),
+            new Rule("trader joe", "Groceries", CategoryGroup.ESSENTIAL),
+            new Rule("walmart", "Groceries", CategoryGroup.ESSENTIAL),
+            new Rule("comcast", "Internet", CategoryGroup.ESSENTIAL),
+            new Rule("xfinity", "Internet", CategoryGroup.ESSENTIAL),
+            new Rule("att", "Internet", CategoryGroup.ESSENTIAL),
+            new Rule("verizon", "Internet", CategoryGroup.ESSENTIAL),
+
+            // SURPLUS
+            new Rule("starbucks", "Coffee", CategoryGroup.SURPLUS),
+            new Rule("mcdonald", "Eating Out", CategoryGroup.SURPLUS),
+            new Rule("chipotle", "Eating Out", CategoryGroup.SURPLUS),
+            new Rule("pizza", "Eating Out", CategoryGroup.SURPLUS),
+            new Rule("amazon", "Shopping", CategoryGroup.SURPLUS),
+            new Rule("best buy", "Shopping", CategoryGroup.SURPLUS),
+            new Rule("target", "Shopping", CategoryGroup.SURPLUS)
+    ));
+
+    private final SeedStore seeds;
+    private final CategorizationService categorization;
+    private final MerchantMemo merchantMemo;
+    private final CategoryCache categories;
+    private final RollupService rollups;
+    private final MonthIndex months;
+    private final RawRowStore rawRows;
+    private final ApplicationStartup startup;
 
     @Override
     public void run(String... args) {
-        record Seed(String name, boolean isIncome, CategoryGroup group) {}
-
-        var seeds = java.util.List.of(
-                // ESSENTIAL
-                new Seed("Rent", false, CategoryGroup.ESSENTIAL),
-                new Seed("Utilities", false, CategoryGroup.ESSENTIAL),
-                new Seed("Groceries", false, CategoryGroup.ESSENTIAL),
-                new Seed("Fuel", false, CategoryGroup.ESSENTIAL),
-                new Seed("Transport", false, CategoryGroup.ESSENTIAL),
-                new Seed("Health Insurance", false, CategoryGroup.ESSENTIAL),
-                new Seed("Medical", false, CategoryGroup.ESSENTIAL),
-                new Seed("Internet", false, CategoryGroup.ESSENTIAL),
-                new Seed("Phone", false, CategoryGroup.ESSENTIAL),
-
-                // SURPLUS
-                new Seed("Eating Out", false, CategoryGroup.SURPLUS),
-                new Seed("Coffee", false, CategoryGroup.SURPLUS),
-                new Seed("Shopping", false, CategoryGroup.SURPLUS),
-                new Seed("Entertainment", false, CategoryGroup.SURPLUS),
-                new Seed("Travel", false, CategoryGroup.SURPLUS),
-                new Seed("Subscriptions", false, CategoryGroup.SURPLUS),
-                new Seed("Uncategorized", false, CategoryGroup.SURPLUS),
-
-                // DEBT
-                new Seed("Mortgage", false, CategoryGroup.DEBT),
-                new Seed("Home Loan", false, CategoryGroup.DEBT),
-                new Seed("Car Loan", false, CategoryGroup.DEBT),
-                new Seed("Student Loan", false, CategoryGroup.DEBT),
-                new Seed("Personal Loan", false, CategoryGroup.DEBT),
-                new Seed("Credit Card Payment", false, CategoryGroup.DEBT),
-                new Seed("Debt Repayment", false, CategoryGroup.DEBT),
-
-                // INCOME (no group)
-                new Seed("Income", true, null)
-        );
-
-        for (var s : seeds) {
-            var existing = categoryRepo.findByNameIgnoreCase(s.name());
-            if (existing.isEmpty()) {
-                categoryRepo.save(Category.builder()
-                        .name(s.name())
-                        .isIncome(s.isIncome())
-                        .group(s.group()) // may be null for income
-                        .build());
-            } else {
-                var c = existing.get();
-                boolean changed = false;
-                if (c.getIsIncome() != s.isIncome()) { c.setIsIncome(s.isIncome()); changed = true; }
-                if (s.group() != null && c.getGroup() != s.group()) { c.setGroup(s.group()); changed = true; }
-                if (changed) categoryRepo.save(c);
-            }
-        }
+        // both steps show up in /actuator/startup next to the context's own
+        var seeding = startup.start("spendwise.seed");
+        boolean seeded = seeds.seedIfChanged(CATEGORIES, RULES);
+        seeding.tag("skipped", Boolean.toString(!seeded)).end();
+
+        var warmup = startup.start("spendwise.warmup");
+        // seeding may have changed groups behind the cache's and the rollup's back
+        categories.invalidate();
+        rollups.rebuildIfEmpty();
+        if (seeded) rollups.syncGroups();
+        months.reload();
+        // seeded rules reach the instances already running too
+        if (seeded) categorization.rulesChanged();
+        else categorization.reloadRules();
+        merchantMemo.invalidate();
+
+        // source rows used to be stored inline in "transaction" (before the fingerprint
+        // backfill, which reads them from raw_batch; see BackgroundMaintenance)
+        rawRows.migrateLegacy();
+        warmup.end();
     }
 
+    private record Rule(String keyword, String category, CategoryGroup group) {}
+
+    private static List<RuleSeed> withPriorities(List<Rule> rules) {
+        List<RuleSeed> out = new ArrayList<>(rules.size());
+        int priority = 0;
+        for (var r : rules) out.add(new RuleSeed(r.keyword(), r.category(), r.group(), priority += 10));
+        return out;
+    }
 }
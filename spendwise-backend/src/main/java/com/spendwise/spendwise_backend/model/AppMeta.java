@@ -0,0 +1,16 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Small key/value facts about the database itself, e.g. which seed data it already has.
+@Entity
+@Table(name = "app_meta")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class AppMeta {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private String value;
+}
@@ -0,0 +1,28 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "category_rule")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class CategoryRule {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // matched as a case-insensitive substring of the description
+    @Column(nullable = false, unique = true)
+    private String keyword;
+
+    // category is created on first match if it doesn't exist yet
+    @Column(nullable = false)
+    private String categoryName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "group_type", nullable = false)
+    private CategoryGroup group;
+
+    // lower wins among matches of the same group; groups rank DEBT, ESSENTIAL, SURPLUS
+    @Column(nullable = false)
+    private Integer priority;
+}
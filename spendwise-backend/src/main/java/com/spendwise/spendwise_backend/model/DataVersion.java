@@ -0,0 +1,17 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Change counter behind the ETags of cached reads (see DataVersions): one row per month
+// ("yyyy-MM") that has ever been written, plus "global" for changes across months.
+@Entity
+@Table(name = "data_version")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class DataVersion {
+    @Id
+    private String name;
+
+    @Column(nullable = false)
+    private Long version;
+}
@@ -0,0 +1,24 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A saved header layout for one bank's CSV export. Each column holds the header text of
+// that field in the file; blank ones fall back to the built-in header aliases.
+@Entity
+@Table(name = "import_mapping")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class ImportMapping {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // what the user picks on upload, e.g. "Chase checking"
+    @Column(nullable = false, unique = true)
+    private String name;
+
+    private String dateColumn;
+    private String descriptionColumn;
+    private String amountColumn;
+    private String creditColumn;
+    private String debitColumn;
+}
@@ -0,0 +1,29 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+// A category the user picked for a merchant while importing. Consulted before the keyword
+// rules, so the next statement from the same merchant gets the user's choice.
+@Entity
+@Table(name = "merchant_category")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MerchantCategory {
+    // the description as MerchantNormalizer reduces it
+    @Id
+    private String merchant;
+
+    // by name, like CategoryRule; created on first use if it doesn't exist any more
+    @Column(nullable = false)
+    private String categoryName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "group_type", nullable = false)
+    private CategoryGroup group;
+
+    // last time an override taught it; the memo keeps the most recent ones
+    @Column(nullable = false)
+    private Instant updatedAt;
+}
@@ -0,0 +1,46 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Pre-aggregated totals per month and category, kept current by imports so summaries
+// don't have to scan "transaction". Rebuildable from scratch (RollupService.rebuild).
+@Entity
+@Table(name = "monthly_rollup")
+@IdClass(MonthlyRollup.Key.class)
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class MonthlyRollup {
+    // first day of the month
+    @Id
+    private LocalDate month;
+
+    // 0 for transactions without a category
+    @Id
+    private Long categoryId;
+
+    // copied from the category; null for income
+    @Enumerated(EnumType.STRING)
+    @Column(name = "group_type")
+    private CategoryGroup group;
+
+    // sum of positive amounts
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal income;
+
+    // sum of negative amounts, stored as a positive number
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal expense;
+
+    @Column(nullable = false)
+    private Long txCount;
+
+    @Getter @Setter @NoArgsConstructor @AllArgsConstructor @EqualsAndHashCode
+    public static class Key implements Serializable {
+        private LocalDate month;
+        private Long categoryId;
+    }
+}
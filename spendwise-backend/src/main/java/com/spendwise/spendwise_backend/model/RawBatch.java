@@ -0,0 +1,21 @@
+package com.spendwise.spendwise_backend.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// The source rows of one import write, deflated together (see RawRowStore for the format).
+// Transactions point into it with raw_batch_id / raw_index; nothing but the raw-row
+// endpoint ever reads it.
+@Entity
+@Table(name = "raw_batch")
+@Getter @Setter @NoArgsConstructor @AllArgsConstructor @Builder
+public class RawBatch {
+    @Id @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer rowCount;
+
+    @Column(nullable = false, columnDefinition = "bytea")
+    private byte[] data;
+}
@@ -7,7 +7,10 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 @Entity
-@Table(name = "transaction")
+@Table(name = "transaction", indexes = {
+        @Index(name = "ix_transaction_fingerprint", columnList = "fingerprint"),
+        @Index(name = "ix_transaction_posted_at_id", columnList = "posted_at, id")
+})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -27,13 +30,27 @@ public class Transaction {
     @Column(nullable = false, precision = 12, scale = 2)
     private BigDecimal amount;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "category_id")
     private Category category;
 
-    @Column(columnDefinition = "text")
-    private String raw;  // optional JSON/CSV row as text
+    // The source row as JSON, on its way in only: the writer stores it compressed in
+    // raw_batch, so loading a transaction never drags it along.
+    @Transient
+    private String raw;
+
+    // where the source row lives (null for rows imported without one)
+    @Column(name = "raw_batch_id")
+    private Long rawBatchId;
+
+    @Column(name = "raw_index")
+    private Integer rawIndex;
 
     @Column
-    private String hash; // optional for de-dupe
+    private String hash; // identifies the row within its import (preview edits are keyed by it)
+
+    // sha-256 of date|normalized description|amount|n-th occurrence in its statement;
+    // the same statement imported twice yields the same fingerprints
+    @Column(length = 64)
+    private String fingerprint;
 }
@@ -0,0 +1,10 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.CategoryRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface CategoryRuleRepo extends JpaRepository<CategoryRule, Long> {
+    Optional<CategoryRule> findByKeywordIgnoreCase(String keyword);
+}
@@ -0,0 +1,10 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.ImportMapping;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+public interface ImportMappingRepo extends JpaRepository<ImportMapping, Long> {
+    Optional<ImportMapping> findByNameIgnoreCase(String name);
+}
@@ -0,0 +1,33 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.MerchantCategory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface MerchantCategoryRepo extends JpaRepository<MerchantCategory, String> {
+
+    List<MerchantCategory> findByOrderByUpdatedAtDesc(Pageable page);
+
+    List<MerchantCategory> findByUpdatedAtAfterOrderByUpdatedAt(Instant since);
+
+    // the latest override for a merchant wins
+    @Modifying
+    @Transactional
+    @Query(nativeQuery = true, value = """
+        insert into merchant_category (merchant, category_name, group_type, updated_at)
+        values (:merchant, :categoryName, :groupType, now())
+        on conflict (merchant) do update set
+            category_name = excluded.category_name,
+            group_type    = excluded.group_type,
+            updated_at    = excluded.updated_at
+        """)
+    void upsert(@Param("merchant") String merchant, @Param("categoryName") String categoryName,
+                @Param("groupType") String groupType);
+}
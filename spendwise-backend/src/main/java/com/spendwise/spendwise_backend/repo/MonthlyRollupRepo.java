@@ -0,0 +1,77 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.MonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public interface MonthlyRollupRepo extends JpaRepository<MonthlyRollup, MonthlyRollup.Key> {
+
+    // [group, income, expense, count] per group of one month; group is null for income categories
+    @Query("""
+        select r.group, coalesce(sum(r.income), 0), coalesce(sum(r.expense), 0), coalesce(sum(r.txCount), 0)
+        from MonthlyRollup r
+        where r.month = :m
+        group by r.group
+        """)
+    List<Object[]> totalsByGroup(@Param("m") LocalDate month);
+
+    // [month, group, income, expense, count] per month and group of a range of months
+    @Query("""
+        select r.month, r.group, coalesce(sum(r.income), 0), coalesce(sum(r.expense), 0), coalesce(sum(r.txCount), 0)
+        from MonthlyRollup r
+        where r.month between :from and :to
+        group by r.month, r.group
+        """)
+    List<Object[]> totalsByMonthAndGroup(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // [month, rows] for every month in the rollup
+    @Query("select r.month, sum(r.txCount) from MonthlyRollup r group by r.month")
+    List<Object[]> countsByMonth();
+
+    // callers run this inside the transaction that wrote the rows
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        insert into monthly_rollup (month, category_id, group_type, income, expense, tx_count)
+        values (:month, :categoryId, :groupType, :income, :expense, :count)
+        on conflict (month, category_id) do update set
+            income   = monthly_rollup.income + excluded.income,
+            expense  = monthly_rollup.expense + excluded.expense,
+            tx_count = monthly_rollup.tx_count + excluded.tx_count
+        """)
+    void addDelta(@Param("month") LocalDate month, @Param("categoryId") long categoryId,
+                  @Param("groupType") String groupType, @Param("income") BigDecimal income,
+                  @Param("expense") BigDecimal expense, @Param("count") long count);
+
+    @Modifying
+    @Query(nativeQuery = true, value = "delete from monthly_rollup")
+    void deleteAllRows();
+
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        insert into monthly_rollup (month, category_id, group_type, income, expense, tx_count)
+        select cast(date_trunc('month', t.posted_at) as date),
+               coalesce(t.category_id, 0),
+               c.group_type,
+               coalesce(sum(case when t.amount > 0 then t.amount end), 0),
+               coalesce(-sum(case when t.amount < 0 then t.amount end), 0),
+               count(*)
+        from "transaction" t left join category c on c.id = t.category_id
+        group by 1, 2, 3
+        """)
+    int insertFromTransactions();
+
+    // after category groups changed (e.g. by seeding)
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        update monthly_rollup r set group_type = c.group_type
+        from category c
+        where r.category_id = c.id and r.group_type is distinct from c.group_type
+        """)
+    int syncGroups();
+}
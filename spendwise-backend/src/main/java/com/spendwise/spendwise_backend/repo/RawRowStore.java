@@ -0,0 +1,151 @@
+package com.spendwise.spendwise_backend.repo;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+// Source rows, kept out of "transaction" so its pages hold only what lists and sums read.
+// One raw_batch row per import write: the rows' JSON deflated together (they share their
+// keys, so that compresses far better than row by row), each as a length-prefixed UTF-8
+// string, -1 for none. A transaction's raw_index is its position in that sequence.
+@Repository
+@RequiredArgsConstructor
+public class RawRowStore {
+
+    private static final int MIGRATE_CHUNK = 500;
+    // app_meta entry: inline raw rows have been moved (value: how many)
+    private static final String MIGRATED = "raw_batch_migrated";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    // whether "transaction" still has the old inline raw column (databases from before raw_batch)
+    private volatile boolean legacyColumn;
+
+    // the new batch's id, or null when none of the rows has a source row
+    public Long insertBatch(List<String> raws) {
+        if (raws.stream().allMatch(java.util.Objects::isNull)) return null;
+        byte[] data = encode(raws);
+        var key = new GeneratedKeyHolder();
+        jdbc.update(con -> {
+            var ps = con.prepareStatement("insert into raw_batch (row_count, data) values (?, ?)", new String[]{"id"});
+            ps.setInt(1, raws.size());
+            ps.setBytes(2, data);
+            return ps;
+        }, key);
+        return key.getKey().longValue();
+    }
+
+    public Optional<String> find(long transactionId) {
+        List<String> found = jdbc.query("""
+                select b.data, t.raw_index
+                from "transaction" t join raw_batch b on b.id = t.raw_batch_id
+                where t.id = ?
+                """, (rs, i) -> decode(rs.getBytes(1), rs.getInt(2)), transactionId);
+        if (!found.isEmpty()) return Optional.ofNullable(found.get(0));
+        if (!legacyColumn) return Optional.empty();
+        // written inline by an instance that predates raw_batch
+        return jdbc.queryForList("select raw from \"transaction\" where id = ?", String.class, transactionId)
+                .stream().filter(java.util.Objects::nonNull).findFirst();
+    }
+
+    // every row of one batch, in raw_index order (empty if the batch is gone)
+    public List<String> batch(long batchId) {
+        List<List<String>> found = jdbc.query("select data, row_count from raw_batch where id = ?",
+                (rs, i) -> decodeAll(rs.getBytes(1), rs.getInt(2)), batchId);
+        return found.isEmpty() ? List.of() : found.get(0);
+    }
+
+    // Moves inline raw rows into batches, a chunk per transaction, and clears the column.
+    // Once it has run to the end, a marker in app_meta skips the scan on later starts; the
+    // column itself stays (instances from before raw_batch may still be writing to it), and
+    // find() keeps looking there.
+    public int migrateLegacy() {
+        legacyColumn = Boolean.TRUE.equals(jdbc.queryForObject("""
+                select exists (select 1 from information_schema.columns
+                               where table_name = 'transaction' and column_name = 'raw')
+                """, Boolean.class));
+        if (!legacyColumn) return 0;
+        if (!jdbc.queryForList("select value from app_meta where name = ?", String.class, MIGRATED).isEmpty()) return 0;
+
+        int moved = 0, n;
+        do {
+            n = tx.execute(status -> {
+                record Legacy(long id, String raw) {}
+                List<Legacy> rows = jdbc.query(
+                        "select id, raw from \"transaction\" where raw is not null order by id limit " + MIGRATE_CHUNK,
+                        (rs, i) -> new Legacy(rs.getLong(1), rs.getString(2)));
+                if (rows.isEmpty()) return 0;
+                Long batchId = insertBatch(rows.stream().map(Legacy::raw).toList());
+                List<Object[]> args = new ArrayList<>(rows.size());
+                for (int i = 0; i < rows.size(); i++) args.add(new Object[]{batchId, i, rows.get(i).id()});
+                jdbc.batchUpdate("update \"transaction\" set raw_batch_id = ?, raw_index = ?, raw = null where id = ?", args);
+                return rows.size();
+            });
+            moved += n;
+        } while (n == MIGRATE_CHUNK);
+        jdbc.update("""
+                insert into app_meta (name, value) values (?, ?)
+                on conflict (name) do nothing
+                """, MIGRATED, Integer.toString(moved));
+        return moved;
+    }
+
+    /* ---------- batch format ---------- */
+
+    static byte[] encode(List<String> raws) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new DataOutputStream(new DeflaterOutputStream(bytes))) {
+            for (String r : raws) {
+                if (r == null) {
+                    out.writeInt(-1);
+                    continue;
+                }
+                byte[] b = r.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(b.length);
+                out.write(b);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static List<String> decodeAll(byte[] data, int count) {
+        List<String> rows = new ArrayList<>(count);
+        try (var in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            for (int i = 0; i < count; i++) {
+                int n = in.readInt();
+                rows.add(n < 0 ? null : new String(in.readNBytes(n), StandardCharsets.UTF_8));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return rows;
+    }
+
+    // inflates only as far as the wanted row
+    static String decode(byte[] data, int index) {
+        try (var in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(data)))) {
+            for (int i = 0; i < index; i++) {
+                int n = in.readInt();
+                if (n > 0) in.skipNBytes(n);
+            }
+            int n = in.readInt();
+            if (n < 0) return null;
+            return new String(in.readNBytes(n), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
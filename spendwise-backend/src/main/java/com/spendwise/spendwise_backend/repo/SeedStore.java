@@ -0,0 +1,138 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+
+// Writes the default categories and rules set-based, in one transaction: one upsert for
+// the categories, one insert for the rules. A version marker in app_meta (a hash of the
+// seed data) skips all of it on later starts until the seed data itself changes.
+@Repository
+@RequiredArgsConstructor
+public class SeedStore {
+
+    public record CategorySeed(String name, boolean isIncome, CategoryGroup group) {}
+
+    public record RuleSeed(String keyword, String categoryName, CategoryGroup group, int priority) {}
+
+    private static final String MARKER = "seed_version";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+
+    // false when the database already has this exact seed data
+    public boolean seedIfChanged(List<CategorySeed> categories, List<RuleSeed> rules) {
+        String version = version(categories, rules);
+        List<String> current = jdbc.queryForList("select value from app_meta where name = ?", String.class, MARKER);
+        if (current.contains(version)) return false;
+
+        // outside the transaction: on a table with names differing only in case it fails,
+        // and the seeding below falls back to matching names without it
+        boolean caseInsensitiveIndex = createCaseInsensitiveIndex();
+        tx.executeWithoutResult(status -> {
+            if (caseInsensitiveIndex) upsertCategories(categories);
+            else mergeCategories(categories);
+            insertRulesIfEmpty(rules);
+            jdbc.update("""
+                    insert into app_meta (name, value) values (?, ?)
+                    on conflict (name) do update set value = excluded.value
+                    """, MARKER, version);
+        });
+        return true;
+    }
+
+    private boolean createCaseInsensitiveIndex() {
+        try {
+            jdbc.execute("create unique index if not exists ux_category_name_lower on category (lower(name))");
+            return true;
+        } catch (DataAccessException duplicateNames) {
+            return false;
+        }
+    }
+
+    // Only fills in what the seed says: a group is never cleared, and unchanged rows aren't
+    // rewritten (so they keep their tuple and nothing bloats).
+    private void upsertCategories(List<CategorySeed> seeds) {
+        jdbc.update("""
+                insert into category (name, is_income, group_type)
+                select name, is_income, group_type from (values %s) v(name, is_income, group_type)
+                on conflict (lower(name)) do update set
+                    is_income  = excluded.is_income,
+                    group_type = coalesce(excluded.group_type, category.group_type)
+                where category.is_income is distinct from excluded.is_income
+                   or (excluded.group_type is not null and category.group_type is distinct from excluded.group_type)
+                """.formatted(categoryValues(seeds)), categoryArgs(seeds));
+    }
+
+    // same effect as upsertCategories, for tables the unique index can't be built on
+    private void mergeCategories(List<CategorySeed> seeds) {
+        jdbc.update("""
+                update category c set
+                    is_income  = v.is_income,
+                    group_type = coalesce(v.group_type, c.group_type)
+                from (values %s) v(name, is_income, group_type)
+                where lower(c.name) = lower(v.name)
+                  and (c.is_income is distinct from v.is_income
+                       or (v.group_type is not null and c.group_type is distinct from v.group_type))
+                """.formatted(categoryValues(seeds)), categoryArgs(seeds));
+        jdbc.update("""
+                insert into category (name, is_income, group_type)
+                select name, is_income, group_type from (values %s) v(name, is_income, group_type)
+                where not exists (select 1 from category c where lower(c.name) = lower(v.name))
+                on conflict do nothing
+                """.formatted(categoryValues(seeds)), categoryArgs(seeds));
+    }
+
+    // Default rules only go into an empty table, so user edits survive restarts.
+    private void insertRulesIfEmpty(List<RuleSeed> rules) {
+        String values = String.join(", ", Collections.nCopies(rules.size(), "(?, ?, ?, ?)"));
+        List<Object> args = new ArrayList<>(rules.size() * 4);
+        for (RuleSeed r : rules) {
+            args.add(r.keyword());
+            args.add(r.categoryName());
+            args.add(r.group().name());
+            args.add(r.priority());
+        }
+        jdbc.update("""
+                insert into category_rule (keyword, category_name, group_type, priority)
+                select keyword, category_name, group_type, priority
+                from (values %s) v(keyword, category_name, group_type, priority)
+                where not exists (select 1 from category_rule)
+                """.formatted(values), args.toArray());
+    }
+
+    private static String categoryValues(List<CategorySeed> seeds) {
+        return String.join(", ", Collections.nCopies(seeds.size(), "(?, ?, cast(? as varchar))"));
+    }
+
+    private static Object[] categoryArgs(List<CategorySeed> seeds) {
+        List<Object> args = new ArrayList<>(seeds.size() * 3);
+        for (CategorySeed s : seeds) {
+            args.add(s.name());
+            args.add(s.isIncome());
+            args.add(s.group() == null ? null : s.group().name());
+        }
+        return args.toArray();
+    }
+
+    private static String version(List<CategorySeed> categories, List<RuleSeed> rules) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((categories + "|" + rules).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 8);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
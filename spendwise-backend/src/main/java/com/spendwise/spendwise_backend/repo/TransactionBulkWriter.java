@@ -0,0 +1,53 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.model.Transaction;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Types;
+import java.util.List;
+
+// Plain JDBC batch inserts for imports. Transaction ids are IDENTITY, which stops
+// Hibernate from batching, but the ids are never needed back so the driver can
+// send the whole chunk in one round trip (see reWriteBatchedInserts on the URL).
+@Repository
+@RequiredArgsConstructor
+public class TransactionBulkWriter {
+
+    private static final String INSERT_SQL = """
+        insert into "transaction" (posted_at, description, amount, category_id, raw_batch_id, raw_index, hash, fingerprint)
+        values (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final RawRowStore rawRows;
+
+    // all-or-nothing: one DB transaction per call (or part of the caller's).
+    // The rows' source rows go into one raw_batch, written first so they can point into it.
+    public void insertAll(List<Transaction> rows) {
+        if (rows.isEmpty()) return;
+        tx.executeWithoutResult(status -> {
+            Long rawBatchId = rawRows.insertBatch(rows.stream().map(Transaction::getRaw).toList());
+            for (int i = 0; i < rows.size(); i++) {
+                Transaction t = rows.get(i);
+                t.setRawBatchId(t.getRaw() == null ? null : rawBatchId);
+                t.setRawIndex(t.getRaw() == null ? null : i);
+            }
+            jdbc.batchUpdate(INSERT_SQL, rows, rows.size(), (ps, t) -> {
+                ps.setDate(1, Date.valueOf(t.getPostedAt()));
+                ps.setString(2, t.getDescription());
+                ps.setBigDecimal(3, t.getAmount());
+                if (t.getCategory() != null) ps.setLong(4, t.getCategory().getId());
+                else ps.setNull(4, Types.BIGINT);
+                ps.setObject(5, t.getRawBatchId(), Types.BIGINT);
+                ps.setObject(6, t.getRawIndex(), Types.INTEGER);
+                ps.setString(7, t.getHash());
+                ps.setString(8, t.getFingerprint());
+            });
+        });
+    }
+}
@@ -0,0 +1,89 @@
+package com.spendwise.spendwise_backend.repo;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+// Transactions of a date range, oldest first, handed over one row at a time as a
+// forward-only cursor reads them: Postgres sends `app.export.fetch-size` rows per round
+// trip, so memory stays flat however long the range. The driver only uses a cursor inside
+// a transaction (autocommit off); callers run forEach in a read-only one.
+@Repository
+public class TransactionExport {
+
+    public record Row(long id, LocalDate date, String description, BigDecimal amount,
+                      String category, String group, String hash, String raw) {}
+
+    // source rows of the few most recent raw batches; rows of one import sit together
+    private static final int RAW_BATCHES_KEPT = 4;
+
+    private final JdbcTemplate jdbc;
+    private final RawRowStore rawRows;
+    private final int fetchSize;
+
+    public TransactionExport(JdbcTemplate jdbc, RawRowStore rawRows,
+                             @Value("${app.export.fetch-size:1000}") int fetchSize) {
+        this.jdbc = jdbc;
+        this.rawRows = rawRows;
+        this.fetchSize = fetchSize;
+    }
+
+    // `from`/`to` inclusive, either may be null; `withRaw` also fetches each source row
+    public void forEach(LocalDate from, LocalDate to, boolean withRaw, Consumer<Row> action) {
+        StringBuilder sql = new StringBuilder("""
+                select t.id, t.posted_at, t.description, t.amount, c.name, c.group_type, t.hash,
+                       t.raw_batch_id, t.raw_index
+                from "transaction" t left join category c on c.id = t.category_id
+                where true
+                """);
+        List<Object> args = new ArrayList<>();
+        if (from != null) {
+            sql.append(" and t.posted_at >= ?");
+            args.add(from);
+        }
+        if (to != null) {
+            sql.append(" and t.posted_at <= ?");
+            args.add(to);
+        }
+        sql.append(" order by t.posted_at, t.id");
+
+        Map<Long, List<String>> batches = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<String>> eldest) {
+                return size() > RAW_BATCHES_KEPT;
+            }
+        };
+        jdbc.query(con -> {
+            var ps = con.prepareStatement(sql.toString(), ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            ps.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) ps.setObject(i + 1, args.get(i));
+            return ps;
+        }, rs -> {
+            String raw = null;
+            long batchId = rs.getLong(8);
+            if (withRaw && !rs.wasNull()) {
+                List<String> batch = batches.computeIfAbsent(batchId, rawRows::batch);
+                int index = rs.getInt(9);
+                raw = index < batch.size() ? batch.get(index) : null;
+            }
+            action.accept(new Row(
+                    rs.getLong(1),
+                    rs.getObject(2, LocalDate.class),
+                    rs.getString(3),
+                    rs.getBigDecimal(4),
+                    rs.getString(5),
+                    rs.getString(6),
+                    rs.getString(7),
+                    raw));
+        });
+    }
+}
@@ -1,12 +1,21 @@
 package com.spendwise.spendwise_backend.repo;
 
 import com.spendwise.spendwise_backend.model.Transaction;
+import com.spendwise.spendwise_backend.web.dto.TransactionDto;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
-import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 public interface TransactionRepo extends JpaRepository<Transaction, Long> {
 
@@ -15,4 +24,33 @@ public interface TransactionRepo extends JpaRepository<Transaction, Long> {
 
     // NEW: fetch all transactions in a month
     List<Transaction> findByPostedAtBetweenOrderByPostedAtAsc(LocalDate start, LocalDate end);
+
+    // Keyset page of a date range, in (postedAt, id) order, strictly after the cursor.
+    // Category is joined into the projection, so no entity (or category) loads per row.
+    @Query("""
+        select new com.spendwise.spendwise_backend.web.dto.TransactionDto(
+            t.id, t.postedAt, t.description, t.amount, c.name, c.group, t.hash)
+        from Transaction t left join t.category c
+        where t.postedAt between :s and :e
+          and (t.postedAt > :afterDate or (t.postedAt = :afterDate and t.id > :afterId))
+        order by t.postedAt, t.id
+        """)
+    List<TransactionDto> findPage(@Param("s") LocalDate start, @Param("e") LocalDate end,
+                                  @Param("afterDate") LocalDate afterDate, @Param("afterId") long afterId,
+                                  Pageable limit);
+
+    // same projection, as a forward-only stream; caller must hold a transaction open
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READ_ONLY, value = "true")})
+    @Query("""
+        select new com.spendwise.spendwise_backend.web.dto.TransactionDto(
+            t.id, t.postedAt, t.description, t.amount, c.name, c.group, t.hash)
+        from Transaction t left join t.category c
+        where t.postedAt between :s and :e
+        order by t.postedAt, t.id
+        """)
+    Stream<TransactionDto> streamRange(@Param("s") LocalDate start, @Param("e") LocalDate end);
+
+    // dedupe preload for one date range
+    @Query("select t.fingerprint from Transaction t where t.postedAt between :s and :e and t.fingerprint is not null")
+    List<String> findFingerprintsBetween(@Param("s") LocalDate start, @Param("e") LocalDate end);
 }
@@ -0,0 +1,144 @@
+package com.spendwise.spendwise_backend.repo;
+
+import com.spendwise.spendwise_backend.web.dto.TransactionDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Description search across all months. A trigram GIN index on lower(description) lets
+// Postgres answer both "contains" and "starts with" LIKE patterns from the index instead
+// of scanning every row; the other filters and the keyset order ride on top of that.
+// Without pg_trgm (no privilege to create the extension) the same queries still work,
+// only as scans.
+@Repository
+@RequiredArgsConstructor
+public class TransactionSearch {
+
+    public enum Match { SUBSTRING, PREFIX }
+
+    // every field but `text` optional; `after*` is the keyset cursor (exclusive)
+    public record Query(String text, Match match, LocalDate from, LocalDate to,
+                        BigDecimal minAmount, BigDecimal maxAmount,
+                        LocalDate afterDate, Long afterId, int limit) {}
+
+    private static final String INDEX = "ix_transaction_description_trgm";
+    // app_meta entry: pg_trgm couldn't be created (value: why)
+    private static final String NO_EXTENSION = "search_no_pg_trgm";
+
+    private final JdbcTemplate jdbc;
+    private volatile boolean indexed;
+
+    // Run in the background after startup (BackgroundMaintenance), outside any transaction;
+    // idempotent. False when there is no index (yet); searches meanwhile are scans, and
+    // indexed() says so. Once the index is there this is one catalog lookup. The index is
+    // built concurrently, so writes to "transaction" carry on while it builds. Without the
+    // privilege to create pg_trgm (managed databases often withhold it) that is recorded
+    // in app_meta and not retried; installing the extension by hand lifts it.
+    public boolean ensureIndex() {
+        indexed = build();
+        return indexed;
+    }
+
+    public boolean indexed() {
+        return indexed;
+    }
+
+    private boolean build() {
+        Boolean valid = indexValid();
+        if (Boolean.TRUE.equals(valid)) return true;
+
+        boolean hasExtension = !jdbc.queryForList(
+                "select extname from pg_extension where extname = 'pg_trgm'", String.class).isEmpty();
+        if (!hasExtension) {
+            if (!jdbc.queryForList("select value from app_meta where name = ?", String.class, NO_EXTENSION).isEmpty()) {
+                return false;
+            }
+            try {
+                jdbc.execute("create extension if not exists pg_trgm");
+            } catch (DataAccessException noPrivilege) {
+                jdbc.update("""
+                        insert into app_meta (name, value) values (?, ?)
+                        on conflict (name) do nothing
+                        """, NO_EXTENSION, String.valueOf(noPrivilege.getMostSpecificCause().getMessage()));
+                return false;
+            }
+        }
+        try {
+            // an interrupted concurrent build leaves an invalid index that "if not exists" would keep
+            if (Boolean.FALSE.equals(valid)) jdbc.execute("drop index concurrently if exists " + INDEX);
+            jdbc.execute("create index concurrently if not exists " + INDEX
+                    + " on \"transaction\" using gin (lower(description) gin_trgm_ops)");
+            return true;
+        } catch (DataAccessException buildFailed) {
+            // e.g. another instance building it at the same moment
+            return Boolean.TRUE.equals(indexValid());
+        }
+    }
+
+    // null when there is no such index
+    private Boolean indexValid() {
+        return jdbc.query("""
+                select i.indisvalid from pg_class c join pg_index i on i.indexrelid = c.oid
+                where c.relname = ?
+                """, rs -> rs.next() ? rs.getBoolean(1) : null, INDEX);
+    }
+
+    // Newest first, (posted_at, id) descending. Amount bounds apply to the magnitude, so
+    // "between 20 and 50" finds a -35.00 purchase as well as a 35.00 refund.
+    public List<TransactionDto> search(Query q) {
+        StringBuilder sql = new StringBuilder("""
+                select t.id, t.posted_at, t.description, t.amount, c.name, c.group_type, t.hash
+                from "transaction" t left join category c on c.id = t.category_id
+                where true
+                """);
+        List<Object> args = new ArrayList<>();
+        if (q.text() != null && !q.text().isBlank()) {
+            String escaped = escapeLike(q.text().trim().toLowerCase());
+            // same expression as the index, or the planner won't use it
+            sql.append(" and lower(t.description) like ? escape '\\'");
+            args.add(q.match() == Match.PREFIX ? escaped + "%" : "%" + escaped + "%");
+        }
+        if (q.from() != null) {
+            sql.append(" and t.posted_at >= ?");
+            args.add(q.from());
+        }
+        if (q.to() != null) {
+            sql.append(" and t.posted_at <= ?");
+            args.add(q.to());
+        }
+        if (q.minAmount() != null) {
+            sql.append(" and abs(t.amount) >= ?");
+            args.add(q.minAmount());
+        }
+        if (q.maxAmount() != null) {
+            sql.append(" and abs(t.amount) <= ?");
+            args.add(q.maxAmount());
+        }
+        if (q.afterDate() != null) {
+            sql.append(" and (t.posted_at, t.id) < (?, ?)");
+            args.add(q.afterDate());
+            args.add(q.afterId());
+        }
+        sql.append(" order by t.posted_at desc, t.id desc limit ?");
+        args.add(q.limit());
+
+        return jdbc.query(sql.toString(), (rs, i) -> new TransactionDto(
+                rs.getLong(1),
+                rs.getObject(2, LocalDate.class),
+                rs.getString(3),
+                rs.getBigDecimal(4),
+                rs.getString(5),
+                rs.getString(6),
+                rs.getString(7)), args.toArray());
+    }
+
+    private static String escapeLike(String s) {
+        return s.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,197 @@
+package com.spendwise.spendwise_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.InputStreamSource;
+import org.springframework.core.io.PathResource;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+// Several statements in one request: a handful of CSV files, or one zip of them. Files are
+// imported side by side, at most `app.import.batch.parallelism` at a time per request,
+// through the normal pipeline. They share one dedupe index, so the same row in two files
+// is written once; category lookups go through the shared CategoryCache anyway. Each file
+// commits on its own, so a file that fails leaves the others' rows in place. Commits are
+// admitted (ImportAdmission) on the bytes there are to read, after zips are expanded.
+@Service
+public class BatchImportService {
+
+    // one uploaded part, or one entry of an uploaded zip; `size` in bytes as it will be read
+    public record BatchFile(String name, long size, InputStreamSource source) {}
+
+    private static final List<String> TOTALS = List.of("inserted", "skipped", "duplicates", "totalRows", "errorsTotal");
+
+    private final ImportService importService;
+    private final ImportAdmission admission;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxFiles;
+    private final long maxUnzippedBytes;
+
+    public BatchImportService(ImportService importService, ImportAdmission admission,
+                              @Value("${app.import.batch.parallelism:3}") int parallelism,
+                              @Value("${app.import.batch.max-files:20}") int maxFiles,
+                              @Value("${app.import.batch.max-unzipped-size:500MB}") DataSize maxUnzipped) {
+        this.importService = importService;
+        this.admission = admission;
+        this.parallelism = Math.max(1, parallelism);
+        this.maxFiles = maxFiles;
+        this.maxUnzippedBytes = maxUnzipped.toBytes();
+        var threads = new CustomizableThreadFactory("import-batch-");
+        threads.setDaemon(true);
+        // bounded per request by the number of lanes each batch starts
+        this.executor = Executors.newCachedThreadPool(threads);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Per-file results in upload order, each the same document a single import returns (or
+    // the error that stopped that file), plus the totals over all of them.
+    public Map<String, Object> importBatch(List<BatchFile> uploads, ImportOptions opts) throws IOException {
+        List<Path> unzipped = new ArrayList<>();
+        try {
+            List<BatchFile> files = expand(uploads, unzipped);
+            if (files.isEmpty()) throw new IllegalArgumentException("No CSV files in the upload");
+
+            // a zip is estimated by what it expands to: compressed text can be a tenth the size
+            long bytes = files.stream().mapToLong(BatchFile::size).sum();
+            try (var ticket = opts.dryRun() ? null : admission.admitBytes(bytes)) {
+                return importAll(files, opts);
+            }
+        } finally {
+            for (Path p : unzipped) Files.deleteIfExists(p);
+        }
+    }
+
+    private Map<String, Object> importAll(List<BatchFile> files, ImportOptions opts) {
+        DedupeIndex dedupe = importService.newDedupeIndex();
+        @SuppressWarnings("unchecked")
+        Map<String, Object>[] results = new Map[files.size()];
+        AtomicInteger next = new AtomicInteger();
+        List<Future<?>> lanes = new ArrayList<>();
+        for (int l = 0; l < Math.min(parallelism, files.size()); l++) {
+            lanes.add(executor.submit(() -> {
+                for (int i; (i = next.getAndIncrement()) < files.size(); ) {
+                    results[i] = importOne(files.get(i), opts, dedupe);
+                }
+            }));
+        }
+        try {
+            for (Future<?> lane : lanes) lane.get();
+        } catch (InterruptedException e) {
+            lanes.forEach(f -> f.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("batch import interrupted");
+        } catch (ExecutionException e) {
+            // importOne catches what a file can throw; anything else is a bug
+            throw new IllegalStateException(e.getCause());
+        }
+        return merged(Arrays.asList(results));
+    }
+
+    private Map<String, Object> importOne(BatchFile file, ImportOptions opts, DedupeIndex dedupe) {
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("file", file.name());
+        try (InputStream in = file.source().getInputStream()) {
+            out.put("result", importService.importCsv(in, opts, new ImportProgress(), dedupe));
+        } catch (Exception e) {
+            out.put("error", e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+        }
+        return out;
+    }
+
+    private static Map<String, Object> merged(List<Map<String, Object>> files) {
+        Map<String, Long> totals = new LinkedHashMap<>();
+        int failed = 0;
+        for (var f : files) {
+            if (!(f.get("result") instanceof Map<?, ?> result)) {
+                failed++;
+                continue;
+            }
+            for (String key : TOTALS) {
+                if (result.get(key) instanceof Number n) totals.merge(key, n.longValue(), Long::sum);
+            }
+        }
+        Map<String, Object> total = new LinkedHashMap<>(totals);
+        total.put("files", files.size());
+        total.put("failedFiles", failed);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("files", files);
+        out.put("total", total);
+        return out;
+    }
+
+    /* ---------- zip handling ---------- */
+
+    // Replaces each zip by the CSV entries in it, spooled to temp files (added to `temps`).
+    // Caps the number of files and the bytes a zip may expand to.
+    private List<BatchFile> expand(List<BatchFile> uploads, List<Path> temps) throws IOException {
+        List<BatchFile> files = new ArrayList<>();
+        long budget = maxUnzippedBytes;
+        for (BatchFile upload : uploads) {
+            if (!isZip(upload.name())) {
+                files.add(upload);
+                checkCount(files);
+                continue;
+            }
+            try (var zip = new ZipInputStream(upload.source().getInputStream())) {
+                for (ZipEntry e; (e = zip.getNextEntry()) != null; ) {
+                    if (e.isDirectory() || !isCsv(e.getName()) || e.getName().startsWith("__MACOSX/")) continue;
+                    Path tmp = Files.createTempFile("spendwise-batch-", ".csv");
+                    temps.add(tmp);
+                    long size;
+                    try (OutputStream out = Files.newOutputStream(tmp)) {
+                        size = copy(zip, out, budget);
+                    }
+                    budget -= size;
+                    files.add(new BatchFile(upload.name() + "!" + e.getName(), size, new PathResource(tmp)));
+                    checkCount(files);
+                }
+            }
+        }
+        return files;
+    }
+
+    // copies at most `limit` bytes; more than that means the zip is too big (or a bomb)
+    private long copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buf = new byte[64 * 1024];
+        long total = 0;
+        for (int n; (n = in.read(buf)) > 0; ) {
+            total += n;
+            if (total > limit) {
+                throw new IllegalArgumentException("Zip expands to more than " + DataSize.ofBytes(maxUnzippedBytes).toMegabytes() + "MB");
+            }
+            out.write(buf, 0, n);
+        }
+        return total;
+    }
+
+    private void checkCount(List<BatchFile> files) {
+        if (files.size() > maxFiles) throw new IllegalArgumentException("At most " + maxFiles + " files per batch");
+    }
+
+    private static boolean isZip(String name) {
+        return name != null && name.toLowerCase(Locale.ROOT).endsWith(".zip");
+    }
+
+    private static boolean isCsv(String name) {
+        String n = name.toLowerCase(Locale.ROOT);
+        return n.endsWith(".csv") || n.endsWith(".txt");
+    }
+}
@@ -0,0 +1,22 @@
+package com.spendwise.spendwise_backend.service;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+// A workload lane is full; the caller should come back after `retryAfter`.
+// Answered as 429 for imports and 503 for reads and streams (see web/BusyExceptionHandler).
+@Getter
+public class BusyException extends RuntimeException {
+
+    public enum Lane { READ, IMPORT, STREAM }
+
+    private final Lane lane;
+    private final Duration retryAfter;
+
+    public BusyException(Lane lane, Duration retryAfter, String message) {
+        super(message);
+        this.lane = lane;
+        this.retryAfter = retryAfter;
+    }
+}
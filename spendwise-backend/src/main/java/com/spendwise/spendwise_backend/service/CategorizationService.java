@@ -2,68 +2,112 @@ package com.spendwise.spendwise_backend.service;
 
 import com.spendwise.spendwise_backend.model.Category;
 import com.spendwise.spendwise_backend.model.CategoryGroup;
-import com.spendwise.spendwise_backend.repo.CategoryRepo;
+import com.spendwise.spendwise_backend.model.CategoryRule;
+import com.spendwise.spendwise_backend.repo.CategoryRuleRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
-import java.util.LinkedHashMap;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Service
 @RequiredArgsConstructor
 public class CategorizationService {
-    private final CategoryRepo categoryRepo;
-
-    // ordered map so first match wins
-    private static final Map<String, String> KEYWORDS = new LinkedHashMap<>() {{
-        put("uber", "Transport");
-        put("lyft", "Transport");
-        put("shell", "Fuel");
-        put("exxon", "Fuel");
-        put("starbucks", "Coffee");
-        put("mcdonald", "Food");
-        put("whole foods", "Groceries");
-        put("trader joe", "Groceries");
-        put("walmart", "Groceries");
-        put("amazon", "Shopping");
-    }};
+    private final CategoryCache categories;
+    private final CategoryRuleRepo ruleRepo;
+    private final MerchantMemo memo;
+    private final DataVersions versions;
+    private final MeterRegistry registry;
+
+    // data_version counter moved by every rule change, on any instance
+    private static final String RULES = "rules";
+
+    // spendwise.categorize.rule{keyword}, one per rule that has matched; "none" = no rule,
+    // "(memo)" = the user's earlier choice for the merchant, so no rule was tried
+    private final Map<String, Counter> ruleHits = new ConcurrentHashMap<>();
+
+    // groups are checked in this order, whatever the rule priorities say
+    private static final Map<CategoryGroup, Integer> GROUP_RANK = new EnumMap<>(Map.of(
+            CategoryGroup.DEBT, 0,
+            CategoryGroup.ESSENTIAL, 1,
+            CategoryGroup.SURPLUS, 2
+    ));
+
+    // the order rules are tried in; the first one that matches wins
+    public static final Comparator<CategoryRule> EVALUATION_ORDER = Comparator
+            .comparing((CategoryRule r) -> GROUP_RANK.get(r.getGroup()))
+            .thenComparing(CategoryRule::getPriority)
+            .thenComparing(CategoryRule::getId);
+
+    // compiled from the category_rule table at `version`; swapped wholesale by reloadRules()
+    private record Compiled(long version, KeywordMatcher<CategoryRule> matcher) {}
+
+    private volatile Compiled compiled;
 
     public Category guess(String description) {
-        final String d = description == null ? "" : description.toLowerCase();
-
-        // ----- DEBT -----
-        if (d.contains("mortgage"))       return ensure("Mortgage", false, CategoryGroup.DEBT);
-        if (d.contains("home loan"))      return ensure("Home Loan", false, CategoryGroup.DEBT);
-        if (d.contains("car loan") || d.contains("auto loan")) return ensure("Car Loan", false, CategoryGroup.DEBT);
-        if (d.contains("student loan"))   return ensure("Student Loan", false, CategoryGroup.DEBT);
-        if (d.contains("personal loan"))  return ensure("Personal Loan", false, CategoryGroup.DEBT);
-        if (d.contains("credit card payment") || d.contains("cc payment") || d.contains("card payment"))
-            return ensure("Credit Card Payment", false, CategoryGroup.DEBT);
-        if (d.contains("emi") || d.contains("installment"))
-            return ensure("Debt Repayment", false, CategoryGroup.DEBT);
-
-        // ----- ESSENTIAL -----
-        if (d.contains("uber") || d.contains("lyft"))              return ensure("Transport", false, CategoryGroup.ESSENTIAL);
-        if (d.contains("shell") || d.contains("exxon"))            return ensure("Fuel", false, CategoryGroup.ESSENTIAL);
-        if (d.contains("whole foods") || d.contains("trader joe") || d.contains("walmart"))
-            return ensure("Groceries", false, CategoryGroup.ESSENTIAL);
-        if (d.contains("comcast") || d.contains("xfinity") || d.contains("att") || d.contains("verizon"))
-            return ensure("Internet", false, CategoryGroup.ESSENTIAL);
-
-        // ----- SURPLUS -----
-        if (d.contains("starbucks"))                               return ensure("Coffee", false, CategoryGroup.SURPLUS);
-        if (d.contains("mcdonald") || d.contains("chipotle") || d.contains("pizza"))
-            return ensure("Eating Out", false, CategoryGroup.SURPLUS);
-        if (d.contains("amazon") || d.contains("best buy") || d.contains("target"))
-            return ensure("Shopping", false, CategoryGroup.SURPLUS);
-
-        return ensure("Uncategorized", false, CategoryGroup.SURPLUS);
+        MerchantMemo.Learned learned = memo.lookup(description);
+        if (learned != null) {
+            hit("(memo)");
+            return ensure(learned.categoryName(), false, learned.group());
+        }
+        CategoryRule rule = matcher().firstMatch(description);
+        hit(rule == null ? "none" : rule.getKeyword());
+        if (rule == null) return ensure("Uncategorized", false, CategoryGroup.SURPLUS);
+        return ensure(rule.getCategoryName(), false, rule.getGroup());
+    }
+
+    // Remembers the categories the user picked on a committed import, by merchant (see
+    // MerchantNormalizer), so later imports guess them. Income is never learned: it follows
+    // from the sign of the amount, not the merchant.
+    public void learn(Map<String, Category> byMerchant) {
+        byMerchant.forEach((merchant, category) -> {
+            if (Boolean.TRUE.equals(category.getIsIncome()) || category.getGroup() == null) return;
+            memo.learn(merchant, category.getName(), category.getGroup());
+        });
+    }
+
+    // after rules are added, removed or seeded: other instances recompile when they see
+    // the version move (DataVersions re-reads it every few seconds), this one at once
+    public void rulesChanged() {
+        versions.bump(RULES);
+        reloadRules();
+    }
+
+    public synchronized void reloadRules() {
+        // version first: a change in between makes the rules look older than they are, not newer
+        long version = versions.version(RULES);
+        var rules = ruleRepo.findAll();
+        rules.sort(EVALUATION_ORDER);
+
+        KeywordMatcher.Builder<CategoryRule> b = KeywordMatcher.builder();
+        for (var r : rules) b.add(r.getKeyword(), r);
+        compiled = new Compiled(version, b.build());
+    }
+
+    private KeywordMatcher<CategoryRule> matcher() {
+        var c = compiled;
+        if (c == null || c.version() != versions.version(RULES)) {
+            synchronized (this) {
+                if (compiled == null || compiled.version() != versions.version(RULES)) reloadRules();
+                c = compiled;
+            }
+        }
+        return c.matcher();
+    }
+
+    private void hit(String keyword) {
+        ruleHits.computeIfAbsent(keyword, k -> Counter.builder("spendwise.categorize.rule")
+                .description("Descriptions categorized by each keyword rule")
+                .tag("keyword", k)
+                .register(registry)).increment();
     }
 
     private Category ensure(String name, boolean isIncome, CategoryGroup group) {
-        return categoryRepo.findByNameIgnoreCase(name).orElseGet(() ->
-                categoryRepo.save(Category.builder().name(name).isIncome(isIncome).group(group).build())
-        );
+        return categories.getOrCreate(name, isIncome, group);
     }
 
 }
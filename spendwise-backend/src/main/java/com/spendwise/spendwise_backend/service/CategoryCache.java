@@ -0,0 +1,99 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.Category;
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.repo.CategoryRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Case-insensitive name -> Category cache. Loaded from the DB on first use and kept
+// current by going through getOrCreate() for every category the app creates.
+@Service
+public class CategoryCache {
+
+    private final CategoryRepo categoryRepo;
+    private final WorkloadLanes lanes;
+    private final ConcurrentHashMap<String, Category> byName = new ConcurrentHashMap<>();
+    private final Counter hits;
+    private final Counter misses;
+    private volatile boolean loaded;
+
+    public CategoryCache(CategoryRepo categoryRepo, WorkloadLanes lanes, MeterRegistry registry) {
+        this.categoryRepo = categoryRepo;
+        this.lanes = lanes;
+        this.hits = Counter.builder("spendwise.category.cache").tag("result", "hit")
+                .description("Category lookups answered from memory").register(registry);
+        this.misses = Counter.builder("spendwise.category.cache").tag("result", "miss")
+                .description("Category lookups that went to the database").register(registry);
+        Gauge.builder("spendwise.category.cache.size", byName, ConcurrentHashMap::size).register(registry);
+    }
+
+    public Optional<Category> find(String name) {
+        Category c = loaded().get(key(name));
+        if (c != null) {
+            hits.increment();
+            return Optional.of(c);
+        }
+        misses.increment();
+        // may have been created by another instance since we loaded
+        var fromDb = lanes.lookup(() -> categoryRepo.findByNameIgnoreCase(name.trim()));
+        fromDb.ifPresent(this::put);
+        return fromDb;
+    }
+
+    // Existing category (as stored, group untouched) or a newly saved one. The database is
+    // asked outside the map, so no map bin is held during I/O; when two callers (or two
+    // instances) create the same new name at once, the unique key lets one insert win and
+    // the other re-reads the winner's row. Every caller gets the instance that is cached.
+    public Category getOrCreate(String name, boolean isIncome, CategoryGroup group) {
+        String trimmed = name.trim();
+        Category c = loaded().get(key(trimmed));
+        if (c != null) {
+            hits.increment();
+            return c;
+        }
+        misses.increment();
+        Category found = lanes.lookup(() -> categoryRepo.findByNameIgnoreCase(trimmed).orElseGet(() -> {
+            try {
+                return categoryRepo.save(Category.builder().name(trimmed).isIncome(isIncome).group(group).build());
+            } catch (DataIntegrityViolationException race) {
+                return categoryRepo.findByNameIgnoreCase(trimmed).orElseThrow(() -> race);
+            }
+        }));
+        Category cached = byName.putIfAbsent(key(trimmed), found);
+        return cached != null ? cached : found;
+    }
+
+    public void put(Category c) {
+        byName.put(key(c.getName()), c);
+    }
+
+    // drop everything; the next lookup reloads from the DB
+    public synchronized void invalidate() {
+        loaded = false;
+        byName.clear();
+    }
+
+    private ConcurrentHashMap<String, Category> loaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    for (Category c : lanes.lookup(categoryRepo::findAll)) put(c);
+                    loaded = true;
+                }
+            }
+        }
+        return byName;
+    }
+
+    private static String key(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,80 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.ImportMapping;
+
+import java.util.*;
+
+// Where each field lives in one file's rows, worked out once from the header. A field may
+// have several candidate columns (its aliases, in preference order); per row the first
+// non-blank one wins, which is what the old per-row alias lookup did.
+final class ColumnMapping {
+
+    private static final String[] DATE   = {"date", "posted date", "transaction date"};
+    private static final String[] DESC   = {"description", "details", "memo", "narrative", "name", "payee"};
+    private static final String[] AMOUNT = {"amount", "transaction amount", "amt"};
+    private static final String[] CREDIT = {"credit", "cr"};
+    private static final String[] DEBIT  = {"debit", "dr", "withdrawal"};
+
+    private final String[] header;
+    private final int[] date, desc, amount, credit, debit;
+
+    private ColumnMapping(String[] header, int[] date, int[] desc, int[] amount, int[] credit, int[] debit) {
+        this.header = header;
+        this.date = date;
+        this.desc = desc;
+        this.amount = amount;
+        this.credit = credit;
+        this.debit = debit;
+    }
+
+    // `saved` (may be null) puts the user's column first for each field it names
+    static ColumnMapping resolve(String[] header, ImportMapping saved) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < header.length; i++) {
+            if (header[i] != null) index.putIfAbsent(normalize(header[i]), i);
+        }
+        return new ColumnMapping(header,
+                columns(index, saved == null ? null : saved.getDateColumn(), DATE),
+                columns(index, saved == null ? null : saved.getDescriptionColumn(), DESC),
+                columns(index, saved == null ? null : saved.getAmountColumn(), AMOUNT),
+                columns(index, saved == null ? null : saved.getCreditColumn(), CREDIT),
+                columns(index, saved == null ? null : saved.getDebitColumn(), DEBIT));
+    }
+
+    private static int[] columns(Map<String, Integer> index, String preferred, String[] aliases) {
+        LinkedHashSet<Integer> found = new LinkedHashSet<>();
+        if (preferred != null) {
+            Integer i = index.get(normalize(preferred));
+            if (i != null) found.add(i);
+        }
+        for (String a : aliases) {
+            Integer i = index.get(a);
+            if (i != null) found.add(i);
+        }
+        return found.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static String normalize(String header) {
+        return header.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+    }
+
+    String date(String[] row)        { return first(date, row); }
+    String description(String[] row) { return first(desc, row); }
+    String amount(String[] row)      { return first(amount, row); }
+    String credit(String[] row)      { return first(credit, row); }
+    String debit(String[] row)       { return first(debit, row); }
+
+    private static String first(int[] columns, String[] row) {
+        for (int i : columns) {
+            if (i < row.length && row[i] != null && !row[i].isBlank()) return row[i];
+        }
+        return null;
+    }
+
+    // the row keyed by its original header, as kept in Transaction.raw
+    Map<String, String> asMap(String[] row) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (int i = 0; i < header.length && i < row.length; i++) m.put(header[i], row[i]);
+        return m;
+    }
+}
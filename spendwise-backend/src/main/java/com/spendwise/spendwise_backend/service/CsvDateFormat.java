@@ -0,0 +1,117 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+
+// The date layouts statements come in, each parsed by hand: a cell that doesn't fit yields
+// null instead of an exception. Order matters: it is the tie-break when several layouts fit
+// the same data (M/d before d/M, as the old per-row parser did).
+public enum CsvDateFormat {
+    ISO("yyyy-MM-dd", '-', Order.YMD),
+    US_SLASH("M/d/yyyy", '/', Order.MDY),
+    EU_SLASH("d/M/yyyy", '/', Order.DMY),
+    US_DASH("MM-dd-yyyy", '-', Order.MDY),
+    EU_DASH("dd-MM-yyyy", '-', Order.DMY),
+    MONTH_NAME("MMM d, yyyy", ' ', Order.NAMED);
+
+    private enum Order { YMD, MDY, DMY, NAMED }
+
+    private static final String[] MONTHS = {"jan", "feb", "mar", "apr", "may", "jun",
+                                            "jul", "aug", "sep", "oct", "nov", "dec"};
+
+    private final String pattern;
+    private final char sep;
+    private final Order order;
+
+    CsvDateFormat(String pattern, char sep, Order order) {
+        this.pattern = pattern;
+        this.sep = sep;
+        this.order = order;
+    }
+
+    public String pattern() {
+        return pattern;
+    }
+
+    // null when `s` is not a valid date in this layout
+    public LocalDate parse(String s) {
+        if (s == null) return null;
+        int from = 0, to = s.length();
+        while (from < to && Character.isWhitespace(s.charAt(from))) from++;
+        while (to > from && Character.isWhitespace(s.charAt(to - 1))) to--;
+        if (order == Order.NAMED) return parseNamed(s, from, to);
+
+        int a = s.indexOf(sep, from);
+        if (a < 0 || a >= to) return null;
+        int b = s.indexOf(sep, a + 1);
+        if (b < 0 || b >= to) return null;
+        int f1 = digits(s, from, a), f2 = digits(s, a + 1, b), f3 = digits(s, b + 1, to);
+        return switch (order) {
+            case YMD -> b - a - 1 <= 2 && to - b - 1 <= 2 && a - from == 4 ? date(f1, f2, f3) : null;
+            case MDY -> a - from <= 2 && b - a - 1 <= 2 && to - b - 1 == 4 ? date(f3, f1, f2) : null;
+            case DMY -> a - from <= 2 && b - a - 1 <= 2 && to - b - 1 == 4 ? date(f3, f2, f1) : null;
+            default -> null;
+        };
+    }
+
+    // "Aug 5, 2025"
+    private static LocalDate parseNamed(String s, int from, int to) {
+        if (to - from < 10) return null;
+        int month = -1;
+        String name = s.substring(from, from + 3);
+        for (int i = 0; i < MONTHS.length; i++) {
+            if (MONTHS[i].equalsIgnoreCase(name)) month = i + 1;
+        }
+        if (month < 0 || s.charAt(from + 3) != ' ') return null;
+        int comma = s.indexOf(',', from + 4);
+        if (comma < 0 || comma >= to || comma - from - 4 > 2) return null;
+        int yearFrom = comma + 1;
+        while (yearFrom < to && s.charAt(yearFrom) == ' ') yearFrom++;
+        if (to - yearFrom != 4) return null;
+        return date(digits(s, yearFrom, to), month, digits(s, from + 4, comma));
+    }
+
+    // the value of s[from, to) if it is 1+ ASCII digits, else -1
+    private static int digits(String s, int from, int to) {
+        if (from >= to) return -1;
+        int v = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9') return -1;
+            v = v * 10 + (c - '0');
+        }
+        return v;
+    }
+
+    private static LocalDate date(int year, int month, int day) {
+        if (year < 0 || month < 1 || month > 12 || day < 1) return null;
+        if (day > 28 && day > YearMonth.of(year, month).lengthOfMonth()) return null;
+        return LocalDate.of(year, month, day);
+    }
+
+    // The layout that parses the most of `samples`, or null if none parses any. A day above
+    // 12 in any sample is what settles M/d against d/M.
+    public static CsvDateFormat sniff(Collection<String> samples) {
+        CsvDateFormat best = null;
+        int bestHits = 0;
+        for (CsvDateFormat f : values()) {
+            int hits = 0;
+            for (String s : samples) if (f.parse(s) != null) hits++;
+            if (hits > bestHits) {
+                best = f;
+                bestHits = hits;
+            }
+        }
+        return best;
+    }
+
+    // per-row fallback for cells the file's layout doesn't fit
+    public static LocalDate parseAny(String s) {
+        for (CsvDateFormat f : values()) {
+            LocalDate d = f.parse(s);
+            if (d != null) return d;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Version counters for cached reads, kept in data_version so every instance derives the
+// same ETags. A month's counter moves in the transaction that commits rows of that month;
+// "global" moves when data changes across months (category regrouping, rollup rebuilds).
+// Counters commit with the data, and a reader takes the version before computing, so a
+// response is never older than the version it is cached and tagged under.
+// The table is held in memory and read again (through the read lane) at most every
+// `app.cache.versions.refresh`, or right after this instance commits a bump, so a cache
+// hit or a 304 doesn't touch the database. Other instances' writes show within that.
+@Service
+public class DataVersions {
+
+    private static final String GLOBAL = "global";
+    private static final String BUMP = """
+            insert into data_version (name, version) values (?, 1)
+            on conflict (name) do update set version = data_version.version + 1
+            """;
+
+    private final JdbcTemplate jdbc;
+    private final WorkloadLanes lanes;
+    private final Duration refresh;
+
+    // name -> version, as last read
+    private volatile NavigableMap<String, Long> snapshot;
+    private volatile long nextRefresh;
+    private final ReentrantLock refreshing = new ReentrantLock();
+
+    public DataVersions(JdbcTemplate jdbc, WorkloadLanes lanes,
+                        @Value("${app.cache.versions.refresh:PT2S}") Duration refresh) {
+        this.jdbc = jdbc;
+        this.lanes = lanes;
+        this.refresh = refresh;
+    }
+
+    // inside the transaction that wrote rows of these months
+    public void bump(Collection<YearMonth> months) {
+        // in month order, so concurrent imports lock the rows in the same order
+        List<Object[]> args = months.stream().sorted().map(m -> new Object[]{m.toString()}).toList();
+        jdbc.batchUpdate(BUMP, args);
+        changed();
+    }
+
+    public void bumpAll() {
+        bump(GLOBAL);
+    }
+
+    // a counter of its own, outside the months (e.g. "rules")
+    public void bump(String name) {
+        jdbc.update(BUMP, name);
+        changed();
+    }
+
+    public long version(String name) {
+        return versions().getOrDefault(name, 0L);
+    }
+
+    // ETag for data of one month
+    public String etag(YearMonth month) {
+        return tag(month.toString(), month.toString(), month.toString());
+    }
+
+    // ETag for data of the months [from, to]; counters only grow, so their sum moves
+    // whenever any month in the range does
+    public String etag(YearMonth from, YearMonth to) {
+        return tag(from + "_" + to, from.toString(), to.toString());
+    }
+
+    // ETag for data spanning all months
+    public String etagAll() {
+        return tag("all", "0000-01", "9999-12");
+    }
+
+    // "yyyy-MM" names compare like the months they stand for; other names sort after them all
+    private String tag(String label, String from, String to) {
+        NavigableMap<String, Long> v = versions();
+        long sum = 0;
+        for (long n : v.subMap(from, true, to, true).values()) sum += n;
+        return "\"" + v.getOrDefault(GLOBAL, 0L) + "-" + label + "-" + sum + "\"";
+    }
+
+    private NavigableMap<String, Long> versions() {
+        NavigableMap<String, Long> v = snapshot;
+        if (v != null && System.nanoTime() - nextRefresh < 0) return v;
+        // one reader refreshes; the rest go on with what there is, unless there is nothing yet
+        if (v != null && !refreshing.tryLock()) return v;
+        if (v == null) refreshing.lock();
+        try {
+            if (snapshot != null && snapshot != v) return snapshot;
+            // due again from before the read, so a bump committed meanwhile isn't missed
+            nextRefresh = System.nanoTime() + refresh.toNanos();
+            NavigableMap<String, Long> fresh = new TreeMap<>();
+            try {
+                lanes.read(() -> {
+                    jdbc.query("select name, version from data_version", rs -> {
+                        fresh.put(rs.getString(1), rs.getLong(2));
+                    });
+                    return null;
+                });
+            } catch (BusyException busy) {
+                // reads are saturated: a slightly old version beats turning the request away
+                if (v != null) return v;
+                throw busy;
+            }
+            snapshot = fresh;
+            return fresh;
+        } finally {
+            refreshing.unlock();
+        }
+    }
+
+    // this instance reads its own writes as soon as they commit
+    private void changed() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            nextRefresh = System.nanoTime();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                nextRefresh = System.nanoTime();
+            }
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.repo.TransactionRepo;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Fingerprints already stored, loaded one month at a time the first time an import
+// touches that month, so dedupe costs one query per month instead of one per row.
+// Thread-safe, so several imports of one batch can share an instance.
+public class DedupeIndex {
+
+    private final TransactionRepo txRepo;
+    private final WorkloadLanes lanes;
+    private final Map<YearMonth, Set<String>> byMonth = new ConcurrentHashMap<>();
+
+    public DedupeIndex(TransactionRepo txRepo, WorkloadLanes lanes) {
+        this.txRepo = txRepo;
+        this.lanes = lanes;
+    }
+
+    public boolean contains(LocalDate date, String fingerprint) {
+        return month(date).contains(fingerprint);
+    }
+
+    // record a row about to be written; false if it was already known
+    public boolean add(LocalDate date, String fingerprint) {
+        return month(date).add(fingerprint);
+    }
+
+    // The month is read outside the map, so no map bin is held during I/O. Two workers
+    // meeting a new month at once may both read it; the first set in wins and the other's
+    // rows are merged into it, so nothing either already added is lost.
+    private Set<String> month(LocalDate date) {
+        YearMonth ym = YearMonth.from(date);
+        Set<String> known = byMonth.get(ym);
+        if (known != null) return known;
+        Set<String> fresh = ConcurrentHashMap.newKeySet();
+        fresh.addAll(lanes.lookup(() -> txRepo.findFingerprintsBetween(ym.atDay(1), ym.atEndOfMonth())));
+        Set<String> raced = byMonth.putIfAbsent(ym, fresh);
+        if (raced == null) return fresh;
+        raced.addAll(fresh);
+        return raced;
+    }
+}
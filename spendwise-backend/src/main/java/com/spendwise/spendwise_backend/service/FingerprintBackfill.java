@@ -0,0 +1,134 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendwise.spendwise_backend.model.ImportMapping;
+import com.spendwise.spendwise_backend.repo.ImportMappingRepo;
+import com.spendwise.spendwise_backend.repo.RawRowStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.*;
+
+// Gives rows imported before content fingerprints existed the fingerprint an import of the
+// same statement computes, so re-importing it dedupes against them. The key is built from
+// the statement's own description, read back from the source row: the stored one may be
+// the user's edit. Identical rows are numbered by id within their date, as an import
+// numbers them within the file. Runs once; app_meta records it done.
+@Service
+@RequiredArgsConstructor
+public class FingerprintBackfill {
+
+    private static final int CHUNK = 1000;
+    private static final int RAW_BATCHES_KEPT = 4;
+    // app_meta entry: every row has a fingerprint (value: how many were backfilled)
+    private static final String DONE = "fingerprints_backfilled";
+
+    private final JdbcTemplate jdbc;
+    private final TransactionTemplate tx;
+    private final RawRowStore rawRows;
+    private final ImportMappingRepo mappingRepo;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private record Legacy(long id, LocalDate date, String description, BigDecimal amount,
+                          Long rawBatchId, int rawIndex) {}
+
+    // run after RawRowStore.migrateLegacy, so every source row is in a batch
+    public int backfill() {
+        if (!jdbc.queryForList("select value from app_meta where name = ?", String.class, DONE).isEmpty()) return 0;
+
+        List<ImportMapping> mappings = mappingRepo.findAll();
+        Map<Long, List<String>> batches = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, List<String>> eldest) {
+                return size() > RAW_BATCHES_KEPT;
+            }
+        };
+        // content key -> rows seen so far on `day`
+        Map<String, Integer> occurrences = new HashMap<>();
+        LocalDate day = null;
+        Legacy last = null;
+        int filled = 0;
+        while (true) {
+            List<Legacy> rows = next(last);
+            if (rows.isEmpty()) break;
+            List<Object[]> args = new ArrayList<>(rows.size());
+            for (Legacy r : rows) {
+                if (!r.date().equals(day)) {
+                    day = r.date();
+                    occurrences.clear();
+                }
+                String raw = r.rawBatchId() == null ? null : rawRow(batches.computeIfAbsent(r.rawBatchId(), rawRows::batch), r.rawIndex());
+                long cents = r.amount().setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+                String key = ImportService.contentKey(r.date(), originalDescription(r.description(), raw, mappings), cents);
+                int nth = occurrences.merge(key, 1, Integer::sum);
+                try {
+                    args.add(new Object[]{ImportService.fingerprint(key, nth), r.id()});
+                } catch (Exception e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+            tx.executeWithoutResult(status ->
+                    jdbc.batchUpdate("update \"transaction\" set fingerprint = ? where id = ?", args));
+            filled += rows.size();
+            last = rows.get(rows.size() - 1);
+        }
+        jdbc.update("""
+                insert into app_meta (name, value) values (?, ?)
+                on conflict (name) do nothing
+                """, DONE, Integer.toString(filled));
+        return filled;
+    }
+
+    // keyset on (posted_at, id): rows are numbered in that order
+    private List<Legacy> next(Legacy after) {
+        String sql = """
+                select id, posted_at, description, amount, raw_batch_id, raw_index
+                from "transaction"
+                where fingerprint is null
+                """ + (after == null ? "" : " and (posted_at, id) > (?, ?)")
+                + " order by posted_at, id limit " + CHUNK;
+        Object[] args = after == null ? new Object[0] : new Object[]{after.date(), after.id()};
+        return jdbc.query(sql, (rs, i) -> new Legacy(
+                rs.getLong(1),
+                rs.getObject(2, LocalDate.class),
+                rs.getString(3),
+                rs.getBigDecimal(4),
+                rs.getObject(5, Long.class),
+                rs.getInt(6)), args);
+    }
+
+    private static String rawRow(List<String> batch, int index) {
+        return index < batch.size() ? batch.get(index) : null;
+    }
+
+    // The description column of the source row, found the way an import finds it (header
+    // aliases, or a saved mapping's column). When one of the candidates is what is stored,
+    // the row wasn't edited; otherwise the first candidate. The stored one if there is none.
+    private String originalDescription(String stored, String rawJson, List<ImportMapping> mappings) {
+        if (rawJson == null) return stored;
+        Map<String, String> raw;
+        try {
+            raw = mapper.readValue(rawJson, new TypeReference<LinkedHashMap<String, String>>() {});
+        } catch (Exception unreadable) {
+            return stored;
+        }
+        String[] header = raw.keySet().toArray(String[]::new);
+        String[] row = raw.values().toArray(String[]::new);
+        List<String> candidates = new ArrayList<>();
+        candidates.add(ColumnMapping.resolve(header, null).description(row));
+        for (ImportMapping m : mappings) candidates.add(ColumnMapping.resolve(header, m).description(row));
+        candidates.removeIf(Objects::isNull);
+
+        String s = stored == null ? "" : stored.trim();
+        for (String c : candidates) {
+            if (c.trim().equals(s)) return c;
+        }
+        return candidates.isEmpty() ? stored : candidates.get(0);
+    }
+}
@@ -0,0 +1,101 @@
+package com.spendwise.spendwise_backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+// Admission control for committing imports, by rows in flight. An import that would push
+// the total past `app.import.admission.max-rows` waits up to `queue-wait` for others to
+// finish, then is refused (BusyException, answered 429 + Retry-After). One import is always
+// let in on an idle server, however big. Uploads are sized before parsing, so their rows
+// are estimated from bytes.
+@Component
+public class ImportAdmission {
+
+    private final long maxRows;
+    private final int bytesPerRow;
+    private final Duration queueWait;
+    private final Duration retryAfter;
+    private long inFlight;
+
+    public ImportAdmission(@Value("${app.import.admission.max-rows:200000}") long maxRows,
+                           @Value("${app.import.admission.bytes-per-row:64}") int bytesPerRow,
+                           @Value("${app.import.admission.queue-wait:PT5S}") Duration queueWait,
+                           @Value("${app.import.admission.retry-after:PT10S}") Duration retryAfter,
+                           MeterRegistry registry) {
+        this.maxRows = maxRows;
+        this.bytesPerRow = Math.max(1, bytesPerRow);
+        this.queueWait = queueWait;
+        this.retryAfter = retryAfter;
+        Gauge.builder("spendwise.import.rows.in_flight", this, ImportAdmission::inFlight)
+                .description("Rows of admitted imports not yet finished")
+                .register(registry);
+    }
+
+    // Released when the import is over, however it ends.
+    public interface Ticket extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    public Ticket admitBytes(long bytes) {
+        return admit(rows(bytes), queueWait, () -> false);
+    }
+
+    public Ticket admitRows(long rows) {
+        return admit(rows, queueWait, () -> false);
+    }
+
+    // Background jobs have nobody to retry them, so they queue for up to `maxWait` instead.
+    // A waiter gives up (CancellationException) once `cancelled` is true; call wakeWaiters()
+    // after cancelling so it notices without waiting for capacity.
+    public Ticket admitBytesQueued(long bytes, Duration maxWait, BooleanSupplier cancelled) {
+        return admit(rows(bytes), maxWait, cancelled);
+    }
+
+    public synchronized void wakeWaiters() {
+        notifyAll();
+    }
+
+    private long rows(long bytes) {
+        return Math.max(1, bytes / bytesPerRow);
+    }
+
+    private synchronized Ticket admit(long rows, Duration wait, BooleanSupplier cancelled) {
+        long deadline = System.nanoTime() + wait.toNanos();
+        try {
+            while (inFlight > 0 && inFlight + rows > maxRows) {
+                if (cancelled.getAsBoolean()) throw new CancellationException("cancelled waiting for import admission");
+                long left = deadline - System.nanoTime();
+                if (left <= 0) {
+                    throw new BusyException(BusyException.Lane.IMPORT, retryAfter,
+                            "Import capacity is in use (" + inFlight + " rows in flight), try again later");
+                }
+                wait(Math.max(1, TimeUnit.NANOSECONDS.toMillis(left)));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted waiting for import admission");
+        }
+        inFlight += rows;
+        boolean[] closed = {false};
+        return () -> release(rows, closed);
+    }
+
+    private synchronized void release(long rows, boolean[] closed) {
+        if (closed[0]) return;
+        closed[0] = true;
+        inFlight -= rows;
+        notifyAll();
+    }
+
+    synchronized long inFlight() {
+        return inFlight;
+    }
+}
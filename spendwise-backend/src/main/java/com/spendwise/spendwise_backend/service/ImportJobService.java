@@ -0,0 +1,152 @@
+package com.spendwise.spendwise_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.AccessLevel;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Runs imports in the background so the HTTP request returns as soon as the upload is
+// spooled to disk. Jobs run on a small bounded pool; finished jobs are kept for polling
+// until `app.import.jobs.retention` has passed.
+@Service
+public class ImportJobService {
+
+    public enum State { QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED }
+
+    @Getter
+    public static final class Job {
+        private final String id = UUID.randomUUID().toString();
+        private final ImportProgress progress = new ImportProgress();
+        private final Instant submittedAt = Instant.now();
+        private volatile State state = State.QUEUED;
+        private volatile Map<String, Object> result;   // same shape as a synchronous import
+        private volatile String error;
+        private volatile Instant finishedAt;
+        @Getter(AccessLevel.NONE) private volatile boolean started;
+        @Getter(AccessLevel.NONE) private final Path csv;
+        @Getter(AccessLevel.NONE) private volatile Future<?> future;
+
+        Job(Path csv) {
+            this.csv = csv;
+        }
+
+        boolean isDone() {
+            return finishedAt != null;
+        }
+    }
+
+    private final ImportService importService;
+    private final ImportAdmission admission;
+    private final ThreadPoolExecutor executor;
+    private final Duration retention;
+    private final Duration admissionWait;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public ImportJobService(ImportService importService,
+                            ImportAdmission admission,
+                            @Value("${app.import.jobs.concurrency:2}") int concurrency,
+                            @Value("${app.import.jobs.queue:20}") int queueSize,
+                            @Value("${app.import.jobs.retention:PT1H}") Duration retention,
+                            @Value("${app.import.jobs.admission-wait:PT30M}") Duration admissionWait) {
+        this.importService = importService;
+        this.admission = admission;
+        this.retention = retention;
+        this.admissionWait = admissionWait;
+        var threads = new CustomizableThreadFactory("import-job-");
+        threads.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(concurrency, concurrency, 0, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueSize), threads, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // Takes ownership of `csv` (deleted when the job ends). Throws RejectedExecutionException
+    // when the queue is full.
+    public Job submit(Path csv, ImportOptions opts) {
+        purgeExpired();
+        Job job = new Job(csv);
+        jobs.put(job.id, job);
+        try {
+            job.future = executor.submit(() -> run(job, csv, opts));
+        } catch (RejectedExecutionException full) {
+            jobs.remove(job.id);
+            deleteQuietly(csv);
+            throw full;
+        }
+        return job;
+    }
+
+    public Optional<Job> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    // Stops a queued or running job; rows already committed stay. A job still in the pool's
+    // queue is dropped from it; one waiting for admission gives up its place there.
+    public Optional<Job> cancel(String id) {
+        Job job = jobs.get(id);
+        if (job == null) return Optional.empty();
+        job.progress.cancel();
+        if (!job.started && job.future != null && job.future.cancel(false)) {
+            finish(job, State.CANCELLED);
+            deleteQuietly(job.csv);
+        } else if (job.state == State.QUEUED) {
+            admission.wakeWaiters();
+        }
+        return Optional.of(job);
+    }
+
+    private void run(Job job, Path csv, ImportOptions opts) {
+        job.started = true;
+        if (job.progress.isCancelled()) {
+            finish(job, State.CANCELLED);
+            deleteQuietly(csv);
+            return;
+        }
+        // commits wait (still QUEUED) until there is import capacity for them, or fail after
+        // `app.import.jobs.admission-wait`
+        try (var ticket = opts.dryRun() ? null
+                : admission.admitBytesQueued(Files.size(csv), admissionWait, job.progress::isCancelled);
+             InputStream in = Files.newInputStream(csv)) {
+            job.state = State.RUNNING;
+            job.result = importService.importCsv(in, opts, job.progress);
+            finish(job, State.SUCCEEDED);
+        } catch (CancellationException e) {
+            finish(job, State.CANCELLED);
+        } catch (Exception e) {
+            job.error = e.getMessage();
+            finish(job, State.FAILED);
+        } finally {
+            deleteQuietly(csv);
+        }
+    }
+
+    private static void finish(Job job, State state) {
+        job.state = state;
+        job.finishedAt = Instant.now();
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        jobs.values().removeIf(j -> j.isDone() && j.finishedAt.isBefore(cutoff));
+    }
+
+    private static void deleteQuietly(Path p) {
+        try {
+            Files.deleteIfExists(p);
+        } catch (IOException ignored) {}
+    }
+}
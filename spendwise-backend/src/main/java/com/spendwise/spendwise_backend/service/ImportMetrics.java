@@ -0,0 +1,64 @@
+package com.spendwise.spendwise_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Meters for the import pipeline. Stage timers are recorded once per chunk (time spent on
+// that chunk in the stage), not per row, so the overhead stays out of the hot loop.
+@Component
+public class ImportMetrics {
+
+    public enum Stage { READ, PARSE, CATEGORIZE, HASH, PERSIST }
+
+    private final MeterRegistry registry;
+    private final Map<Stage, Timer> stages = new EnumMap<>(Stage.class);
+    private final Map<String, Counter> errors = new ConcurrentHashMap<>();
+
+    public ImportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage s : Stage.values()) {
+            stages.put(s, Timer.builder("spendwise.import.stage")
+                    .description("Time spent per chunk in one import stage")
+                    .tag("stage", s.name().toLowerCase())
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+    }
+
+    void stage(Stage stage, long nanos) {
+        if (nanos > 0) stages.get(stage).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // cause: missing_fields | date | amount | categorize | row | write ...
+    void error(String cause) {
+        errors.computeIfAbsent(cause, c -> Counter.builder("spendwise.import.errors")
+                .description("Rows rejected during import, by cause")
+                .tag("cause", c)
+                .register(registry)).increment();
+    }
+
+    // once per finished import
+    void finished(boolean dryRun, long rows, long bytes, long nanos) {
+        String mode = dryRun ? "preview" : "commit";
+        DistributionSummary.builder("spendwise.import.rows")
+                .description("Rows per import").baseUnit("rows").tag("mode", mode)
+                .register(registry).record(rows);
+        DistributionSummary.builder("spendwise.import.bytes")
+                .description("Upload size per import").baseUnit("bytes").tag("mode", mode)
+                .register(registry).record(bytes);
+        if (nanos > 0) {
+            DistributionSummary.builder("spendwise.import.throughput")
+                    .description("Rows per second of one import").baseUnit("rows/s").tag("mode", mode)
+                    .publishPercentileHistogram()
+                    .register(registry).record(rows * 1e9 / nanos);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.ImportMapping;
+
+import java.util.Map;
+import java.util.Set;
+
+// What the caller asked for on one import run; the edit maps are keyed by row hash.
+public record ImportOptions(
+        String month,                              // "YYYY-MM" or null for all rows
+        boolean dryRun,
+        String statementType,                      // "debit" | "credit"
+        Map<String, String> overrides,             // hash -> category name
+        Map<String, String> descOverrides,         // hash -> new description
+        Map<String, CategoryGroup> groupOverrides, // hash -> group for new categories
+        Set<String> exclude,
+        boolean decimalComma,                      // amounts written as 1.234,56
+        ImportMapping mapping                      // saved header layout, or null
+) {
+    // the commit of a previewed file: same file settings, the user's edits
+    public ImportOptions forCommit(Map<String, String> overrides, Map<String, String> descOverrides,
+                                   Map<String, CategoryGroup> groupOverrides, Set<String> exclude) {
+        return new ImportOptions(month, false, statementType, overrides, descOverrides, groupOverrides, exclude,
+                decimalComma, mapping);
+    }
+}
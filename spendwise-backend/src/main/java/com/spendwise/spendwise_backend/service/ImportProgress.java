@@ -0,0 +1,40 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// Live counters of one import. Written only by the import's consuming thread and
+// read by anyone polling it; cancel() may be called from any thread.
+public class ImportProgress {
+
+    static final int ERRORS_SAMPLE = 10;
+
+    private volatile int rowsProcessed, inserted, skipped, errorsTotal;
+    private final List<String> errors = new CopyOnWriteArrayList<>();
+    private volatile boolean cancelled;
+
+    public int getRowsProcessed() { return rowsProcessed; }
+    public int getInserted() { return inserted; }
+    public int getSkipped() { return skipped; }
+    public int getErrorsTotal() { return errorsTotal; }
+    public List<String> getErrorsSample() { return List.copyOf(errors); }
+    public boolean isCancelled() { return cancelled; }
+
+    public void cancel() { cancelled = true; }
+
+    void rowProcessed() { rowsProcessed++; }
+    void inserted(int n) { inserted += n; }
+    void skipped() { skipped++; }
+
+    // counts a previewed file's dry run settled, when its commit doesn't see those rows again
+    void carryOver(int skippedRows, List<String> errorsSample, int errorCount) {
+        skipped += skippedRows + errorCount;
+        errorsTotal += errorCount;
+        for (String e : errorsSample) if (errors.size() < ERRORS_SAMPLE) errors.add(e);
+    }
+
+    void error(int line, String message) {
+        skipped++; errorsTotal++;
+        if (errors.size() < ERRORS_SAMPLE) errors.add("line " + line + ": " + message);
+    }
+}
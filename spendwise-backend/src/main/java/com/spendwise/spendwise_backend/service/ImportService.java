@@ -0,0 +1,680 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVParser;
+import com.opencsv.CSVParserBuilder;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVReaderBuilder;
+import com.spendwise.spendwise_backend.model.Category;
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.Transaction;
+import com.spendwise.spendwise_backend.repo.TransactionBulkWriter;
+import com.spendwise.spendwise_backend.repo.TransactionRepo;
+import com.spendwise.spendwise_backend.web.dto.ImportPreviewRow;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.regex.Pattern;
+
+// CSV import pipeline. A reader thread cuts the file into chunks, a shared worker pool
+// parses/categorizes the chunks in parallel, and the calling thread consumes the results
+// in file order: it numbers the rows, hashes them and is the only one writing to the DB.
+@Service
+public class ImportService {
+
+    // how much of the upload we look at to find the header line / BOM
+    private static final int PEEK_CHARS = 8192;
+    private static final int PREVIEW_SAMPLE = 200;
+    private static final int DATE_SNIFF_ROWS = 100;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final TransactionBulkWriter txWriter;
+    private final TransactionRepo txRepo;
+    private final CategorizationService categorization;
+    private final CategoryCache categories;
+    private final RollupService rollups;
+    private final TransactionTemplate tx;
+    private final ImportMetrics metrics;
+    private final PreviewSessions sessions;
+    private final WorkloadLanes lanes;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final ExecutorService readers;
+    private final ExecutorService workers;
+    private final int batchSize;
+    private final int chunkSize;
+    private final int maxChunksInFlight;
+
+    public ImportService(TransactionBulkWriter txWriter,
+                         TransactionRepo txRepo,
+                         CategorizationService categorization,
+                         CategoryCache categories,
+                         RollupService rollups,
+                         TransactionTemplate tx,
+                         ImportMetrics metrics,
+                         PreviewSessions sessions,
+                         WorkloadLanes lanes,
+                         @Value("${app.import.batch-size:1000}") int batchSize,
+                         @Value("${app.import.chunk-size:256}") int chunkSize,
+                         @Value("${app.import.workers:0}") int workers) {
+        this.txWriter = txWriter;
+        this.txRepo = txRepo;
+        this.categorization = categorization;
+        this.categories = categories;
+        this.rollups = rollups;
+        this.tx = tx;
+        this.metrics = metrics;
+        this.sessions = sessions;
+        this.lanes = lanes;
+        this.batchSize = batchSize;
+        this.chunkSize = chunkSize;
+
+        int n = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        this.maxChunksInFlight = n * 2;
+        this.workers = Executors.newFixedThreadPool(n, daemonThreads("import-worker-"));
+        this.readers = Executors.newCachedThreadPool(daemonThreads("import-reader-"));
+    }
+
+    @PreDestroy
+    void shutdown() {
+        readers.shutdownNow();
+        workers.shutdownNow();
+    }
+
+    public Map<String, Object> importCsv(InputStream input, ImportOptions opts) throws Exception {
+        return importCsv(input, opts, new ImportProgress());
+    }
+
+    // Same as above, reporting into `progress` as rows go by. If the import is cancelled
+    // through it, rows not yet written are dropped and CancellationException is thrown;
+    // chunks already committed stay.
+    public Map<String, Object> importCsv(InputStream input, ImportOptions opts, ImportProgress progress) throws Exception {
+        return importCsv(input, opts, progress, newDedupeIndex());
+    }
+
+    // `dedupe` may be shared by imports that should not duplicate each other's rows
+    public Map<String, Object> importCsv(InputStream input, ImportOptions opts, ImportProgress progress,
+                                         DedupeIndex dedupe) throws Exception {
+        ensureBaseCategories();
+
+        long started = System.nanoTime();
+        Run run = new Run(opts, progress, dedupe);
+        var counted = new CountingInputStream(input);
+        CsvInput in = openCsv(counted);
+        BlockingQueue<Future<List<ParsedRow>>> chunks = new ArrayBlockingQueue<>(maxChunksInFlight);
+        Future<?> reading = readers.submit(() -> readChunks(in, opts, chunks, run));
+        try {
+            while (true) {
+                Future<List<ParsedRow>> next = chunks.take();
+                if (next == END_OF_INPUT) break;
+                for (ParsedRow row : join(next)) run.accept(row);
+                metrics.stage(ImportMetrics.Stage.HASH, run.hashNanos);
+                run.hashNanos = 0;
+                if (progress.isCancelled()) throw new CancellationException("import cancelled");
+            }
+            run.flush();
+            run.learn();
+            run.finishPreview();
+        } catch (Exception e) {
+            if (run.session != null) run.session.discard();
+            throw e;
+        } finally {
+            run.stopped = true;
+            reading.cancel(true);
+            chunks.clear();
+        }
+        metrics.finished(opts.dryRun(), progress.getRowsProcessed(), counted.count, System.nanoTime() - started);
+        return run.result();
+    }
+
+    // Commits what a dry run staged, with the user's edits in `opts` (see forCommit). Nothing
+    // is re-read or re-parsed; rows are re-checked against the ledger in case another
+    // import wrote them since the preview. Consumes the session.
+    public Map<String, Object> commit(PreviewSession session, ImportOptions opts, ImportProgress progress) {
+        Run run = new Run(opts, progress, newDedupeIndex());
+        run.duplicates = session.getDuplicates();
+        run.dateFormat = session.getDateFormat();
+        progress.carryOver(session.getSkipped(), session.getErrorsSample(), session.getErrorsTotal());
+        StagedRows.Cursor rows = session.rows().iterator();
+        try {
+            while (rows.hasNext()) {
+                progress.rowProcessed();
+                run.stage(rows.next());
+                if (progress.isCancelled()) throw new CancellationException("import cancelled");
+            }
+            run.flush();
+            run.learn();
+        } finally {
+            rows.close();
+            session.discard();
+        }
+        return run.result();
+    }
+
+    /* ---------- stage 1: read (one thread per import) ---------- */
+
+    private static final Future<List<ParsedRow>> END_OF_INPUT = CompletableFuture.completedFuture(List.of());
+
+    private record RawRow(int line, String[] values) {}
+
+    private void readChunks(CsvInput in, ImportOptions opts,
+                            BlockingQueue<Future<List<ParsedRow>>> out, Run run) {
+        CSVParser parser = new CSVParserBuilder().withSeparator(in.separator()).build();
+        try (CSVReader reader = new CSVReaderBuilder(in.reader()).withCSVParser(parser).build()) {
+            String[] header = reader.readNext();
+            if (header != null) {
+                // header lookups happen here, once; rows are only indexed into
+                ColumnMapping cols = ColumnMapping.resolve(header, opts.mapping());
+                int line = 1;
+                List<RawRow> chunk = new ArrayList<>(chunkSize);
+                String[] rawRow;
+                CsvDateFormat dates = null;
+                boolean sniffed = false;
+                long t0 = System.nanoTime();
+                while (!run.stopped && (rawRow = reader.readNext()) != null) {
+                    chunk.add(new RawRow(++line, rawRow));
+                    if (chunk.size() == chunkSize) {
+                        metrics.stage(ImportMetrics.Stage.READ, System.nanoTime() - t0);
+                        if (!sniffed) {
+                            dates = sniffDates(chunk, cols, run);
+                            sniffed = true;
+                        }
+                        offer(out, parseAsync(chunk, opts, cols, dates), run);
+                        chunk = new ArrayList<>(chunkSize);
+                        t0 = System.nanoTime();   // time blocked on a full queue is not reading
+                    }
+                }
+                if (!chunk.isEmpty()) {
+                    metrics.stage(ImportMetrics.Stage.READ, System.nanoTime() - t0);
+                    if (!sniffed) dates = sniffDates(chunk, cols, run);
+                    offer(out, parseAsync(chunk, opts, cols, dates), run);
+                }
+            }
+        } catch (Exception ex) {
+            // surfaces on the consuming thread, in order, like any other chunk
+            offer(out, CompletableFuture.failedFuture(ex), run);
+        }
+        offer(out, END_OF_INPUT, run);
+    }
+
+    // One date layout per file, picked from the first rows before any of them is parsed.
+    // The consumer reads run.dateFormat only after taking a chunk, which orders the write.
+    private static CsvDateFormat sniffDates(List<RawRow> firstRows, ColumnMapping cols, Run run) {
+        List<String> samples = new ArrayList<>(DATE_SNIFF_ROWS);
+        for (RawRow r : firstRows.subList(0, Math.min(DATE_SNIFF_ROWS, firstRows.size()))) {
+            String d = cols.date(r.values());
+            if (d != null) samples.add(d);
+        }
+        CsvDateFormat f = CsvDateFormat.sniff(samples);
+        run.dateFormat = f;
+        return f;
+    }
+
+    private static void offer(BlockingQueue<Future<List<ParsedRow>>> out, Future<List<ParsedRow>> f, Run run) {
+        try {
+            while (!run.stopped && !out.offer(f, 100, TimeUnit.MILLISECONDS)) {
+                // consumer is behind (or writing to the DB); back-pressure the reader
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static List<ParsedRow> join(Future<List<ParsedRow>> f) throws Exception {
+        try {
+            return f.get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception ex ? ex : e;
+        }
+    }
+
+    /* ---------- stage 2: parse + categorize (worker pool) ---------- */
+
+    public DedupeIndex newDedupeIndex() {
+        return new DedupeIndex(txRepo, lanes);
+    }
+
+    // a parsed row, or the reason it couldn't be parsed
+    private record ParsedRow(int line, LocalDate date, String desc, long cents,
+                             Category category, String raw, String contentKey,
+                             String error, String errorCause) {
+        static ParsedRow failed(int line, String cause, String error) {
+            return new ParsedRow(line, null, null, 0, null, null, null, error, cause);
+        }
+    }
+
+    private Future<List<ParsedRow>> parseAsync(List<RawRow> chunk, ImportOptions opts,
+                                               ColumnMapping cols, CsvDateFormat dates) {
+        return CompletableFuture.supplyAsync(() -> {
+            long t0 = System.nanoTime();
+            long[] categorizeNanos = {0};
+            List<ParsedRow> out = new ArrayList<>(chunk.size());
+            for (RawRow r : chunk) out.add(parse(r, opts, cols, dates, categorizeNanos));
+            metrics.stage(ImportMetrics.Stage.PARSE, System.nanoTime() - t0 - categorizeNanos[0]);
+            metrics.stage(ImportMetrics.Stage.CATEGORIZE, categorizeNanos[0]);
+            return out;
+        }, workers);
+    }
+
+    // categorizeNanos accumulates time spent in the categorizer, timed apart from parsing
+    private ParsedRow parse(RawRow raw, ImportOptions opts, ColumnMapping cols, CsvDateFormat dates,
+                            long[] categorizeNanos) {
+        String step = "parse";
+        try {
+            String[] row = raw.values();
+
+            String dateStr = cols.date(row);
+            String desc    = cols.description(row);
+            String amtStr  = cols.amount(row);
+            String credit  = cols.credit(row);
+            String debit   = cols.debit(row);
+
+            if ((dateStr == null || desc == null) || (isBlank(amtStr) && isBlank(credit) && isBlank(debit))) {
+                return ParsedRow.failed(raw.line(), "missing_fields", "missing required fields");
+            }
+
+            step = "date";
+            LocalDate date = parseDate(dateStr, dates);
+            step = "amount";
+            long cents = parseAmountCents(amtStr, credit, debit, opts.decimalComma());
+
+            // Flip signs for credit-card statements (your simplified rule)
+            if ("credit".equalsIgnoreCase(opts.statementType())) {
+                cents = -cents;
+            }
+
+            // Suggested category (used if user doesn't override)
+            step = "categorize";
+            long c0 = System.nanoTime();
+            Category cat = (cents > 0)
+                    ? ensureIncome()
+                    : categorization.guess(desc);
+            categorizeNanos[0] += System.nanoTime() - c0;
+
+            step = "parse";
+            String rawJson = mapper.writeValueAsString(cols.asMap(row));
+            return new ParsedRow(raw.line(), date, desc.trim(), cents, cat, rawJson, contentKey(date, desc, cents), null, null);
+        } catch (Exception ex) {
+            return ParsedRow.failed(raw.line(), step, ex.getMessage());
+        }
+    }
+
+    /* ---------- stage 3: number, hash, preview or write (calling thread) ---------- */
+
+    // State of one import. Only ever touched by the consuming thread, except `stopped`.
+    private final class Run {
+        final ImportOptions opts;
+        final ImportProgress progress;
+        final DedupeIndex dedupe;
+        final PreviewSession session;   // dry runs only: what the commit will write
+        final LocalDate monthStart, monthEnd;
+        volatile boolean stopped;
+        volatile CsvDateFormat dateFormat;   // null when no layout fit the sampled rows
+
+        int rowIndex, totalRows, duplicates, notImported;
+        long hashNanos;   // since the last chunk, for the hash stage timer
+        // content key -> times seen in this file, so identical rows stay distinct
+        final Map<String, Integer> occurrences = new HashMap<>();
+        // only samples are kept, so memory stays flat however big the upload is
+        final List<ImportPreviewRow> preview = new ArrayList<>();
+        final List<Transaction> pending = new ArrayList<>();
+        final List<Integer> pendingLines = new ArrayList<>();
+        // merchant -> category the user overrode it to, learned once the import is written
+        final Map<String, Category> learned = new HashMap<>();
+
+        Run(ImportOptions opts, ImportProgress progress, DedupeIndex dedupe) {
+            this.opts = opts;
+            this.progress = progress;
+            this.dedupe = dedupe;
+            this.session = opts.dryRun() ? sessions.open(opts) : null;
+            if (opts.month() != null && !opts.month().isBlank()) {
+                YearMonth ym = YearMonth.parse(opts.month());
+                monthStart = ym.atDay(1);
+                monthEnd = ym.atEndOfMonth();
+            } else {
+                monthStart = null;
+                monthEnd = null;
+            }
+        }
+
+        void accept(ParsedRow p) {
+            progress.rowProcessed();
+            if (p.error() != null) {
+                error(p.line(), p.errorCause(), p.error());
+                return;
+            }
+            try {
+                rowIndex++;
+                LocalDate date = p.date();
+                String descNorm = p.desc();
+                Category cat = p.category();
+                BigDecimal amount = MoneyParser.toBigDecimal(p.cents());
+
+                // Unique-per-row hash: identifies the row for preview edits
+                long h0 = System.nanoTime();
+                String hash = sha256(date + "|" + descNorm + "|" + amount.toPlainString() + "|" + rowIndex);
+
+                // Content fingerprint: identical for the same row in a re-imported statement
+                int nth = occurrences.merge(p.contentKey(), 1, Integer::sum);
+                String fingerprint = fingerprint(p.contentKey(), nth);
+                hashNanos += System.nanoTime() - h0;
+                boolean duplicate = dedupe.contains(date, fingerprint);
+                if (duplicate) duplicates++;
+
+                boolean inTargetMonth = monthStart == null || (!date.isBefore(monthStart) && !date.isAfter(monthEnd));
+
+                String groupName = (cat.getGroup() == null) ? null : cat.getGroup().name();
+                boolean wouldImport = inTargetMonth && !duplicate;
+
+                StagedRow staged = new StagedRow(p.line(), date, descNorm, p.cents(), cat, p.raw(), hash, fingerprint);
+                if (opts.dryRun()) {
+                    totalRows++;
+                    if (wouldImport) {
+                        dedupe.add(date, fingerprint);
+                        session.rows().add(staged);
+                    } else {
+                        notImported++;
+                    }
+                    if (preview.size() < PREVIEW_SAMPLE) {
+                        preview.add(new ImportPreviewRow(
+                                date, descNorm, amount, cat.getName(), groupName,
+                                duplicate, inTargetMonth, hash, wouldImport
+                        ));
+                    }
+                    return;
+                }
+
+                if (wouldImport) stage(staged);
+                else progress.skipped();
+            } catch (Exception ex) {
+                error(p.line(), "row", ex.getMessage());
+            }
+        }
+
+        // Applies the user's edits to a row that would be imported and queues it for writing.
+        void stage(StagedRow s) {
+            try {
+                String hash = s.hash();
+                String descNorm = s.desc();
+                // as it is now, not as it was when the preview ran
+                Category cat = categories.getOrCreate(s.categoryName(), s.income(), s.group());
+
+                // Apply description override if present
+                String descOverride = opts.descOverrides().get(hash);
+                if (descOverride != null && !descOverride.isBlank()) {
+                    descNorm = descOverride.trim();
+                }
+
+                // Apply category override if present (by name)
+                String overrideName = opts.overrides().get(hash);
+                if (overrideName != null && !overrideName.isBlank()) {
+                    String name = overrideName.trim();
+
+                    // Special-case: Income
+                    if (name.equalsIgnoreCase("Income")) {
+                        cat = ensureIncome();
+                    } else {
+                        // Existing category is used as-is (group from DB);
+                        // a new one takes the group override if present (else SURPLUS)
+                        CategoryGroup desired = opts.groupOverrides().getOrDefault(hash, CategoryGroup.SURPLUS);
+                        cat = categories.getOrCreate(name, false, desired);
+                    }
+                }
+                // No category override → keep suggested (cat)
+
+                if (opts.exclude().contains(hash)) {
+                    progress.skipped();
+                    return;
+                }
+                if (overrideName != null && !overrideName.isBlank()) {
+                    // keyed by the statement's text, which is what next month's file will say
+                    learned.put(MerchantNormalizer.normalize(s.desc()), cat);
+                }
+                if (!dedupe.add(s.date(), s.fingerprint())) {
+                    duplicates++;   // written by someone else since the preview
+                    progress.skipped();
+                } else {
+                    pending.add(Transaction.builder()
+                            .postedAt(s.date())
+                            .description(descNorm)
+                            .amount(MoneyParser.toBigDecimal(s.cents()))
+                            .category(cat)
+                            .raw(s.raw())
+                            .hash(hash)
+                            .fingerprint(s.fingerprint())
+                            .build());
+                    pendingLines.add(s.line());
+                    if (pending.size() >= batchSize) flush();
+                }
+            } catch (Exception ex) {
+                error(s.line(), "row", ex.getMessage());
+            }
+        }
+
+        // the rows are in by now; failing to remember the overrides mustn't fail the import
+        void learn() {
+            if (learned.isEmpty()) return;
+            try {
+                categorization.learn(learned);
+            } catch (RuntimeException e) {
+                metrics.error("learn");
+            }
+        }
+
+        void finishPreview() throws IOException {
+            if (session == null) return;
+            session.finish(notImported, duplicates, dateFormat, progress);
+            sessions.register(session);
+        }
+
+        void error(int line, String cause, String message) {
+            progress.error(line, message);
+            metrics.error(cause);
+        }
+
+        // Writes a chunk in one batch/transaction. If the chunk fails, it is retried
+        // row by row so only the bad rows are skipped and reported with their line.
+        void flush() {
+            if (pending.isEmpty()) return;
+            try {
+                write(pending);
+                progress.inserted(pending.size());
+            } catch (Exception chunkFailed) {
+                for (int i = 0; i < pending.size(); i++) {
+                    try {
+                        write(List.of(pending.get(i)));
+                        progress.inserted(1);
+                    } catch (Exception ex) {
+                        error(pendingLines.get(i), "write", ex.getMessage());
+                    }
+                }
+            }
+            pending.clear();
+            pendingLines.clear();
+        }
+
+        Map<String, Object> result() {
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("mode", opts.dryRun() ? "preview" : "commit");
+            out.put("month", opts.month());
+            out.put("duplicates", duplicates);
+            out.put("dateFormat", dateFormat == null ? null : dateFormat.pattern());
+            if (opts.dryRun()) {
+                out.put("sessionId", session.getId());
+                out.put("rows", preview);
+                out.put("totalRows", totalRows);
+            } else {
+                out.put("inserted", progress.getInserted());
+                out.put("skipped", progress.getSkipped());
+            }
+            out.put("errorsSample", progress.getErrorsSample());
+            out.put("errorsTotal", progress.getErrorsTotal());
+            return out;
+        }
+    }
+
+    /* ---------- helpers ---------- */
+
+    // rows and their rollup deltas commit together
+    // (in the import lane, so concurrent imports can't hold every pooled connection)
+    private void write(List<Transaction> rows) {
+        lanes.importWrite(() -> {
+            long t0 = System.nanoTime();
+            try {
+                tx.executeWithoutResult(status -> {
+                    txWriter.insertAll(rows);
+                    rollups.add(rows);
+                });
+            } finally {
+                metrics.stage(ImportMetrics.Stage.PERSIST, System.nanoTime() - t0);
+            }
+        });
+    }
+
+    private static final class CountingInputStream extends FilterInputStream {
+        long count;
+
+        CountingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) count++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buf, int off, int len) throws IOException {
+            int n = super.read(buf, off, len);
+            if (n > 0) count += n;
+            return n;
+        }
+    }
+
+    private static CustomizableThreadFactory daemonThreads(String prefix) {
+        var f = new CustomizableThreadFactory(prefix);
+        f.setDaemon(true);
+        return f;
+    }
+
+    private record CsvInput(Reader reader, char separator) {}
+
+    // Opens the upload as a stream: only a small peek buffer is read up front to
+    // sniff the separator, then the reader is rewound and positioned past any BOM.
+    private static CsvInput openCsv(InputStream input) throws IOException {
+        var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        reader.mark(PEEK_CHARS);
+        char[] peek = new char[PEEK_CHARS];
+        int len = 0, n;
+        while (len < peek.length && (n = reader.read(peek, len, peek.length - len)) > 0) {
+            len += n;
+            if (indexOfLineEnd(peek, len) >= 0) break;
+        }
+        reader.reset();
+
+        int from = 0;
+        if (len > 0 && peek[0] == '\uFEFF') {
+            reader.skip(1);
+            from = 1;
+        }
+        int end = indexOfLineEnd(peek, len);
+        String headerLine = new String(peek, from, (end < 0 ? len : end) - from);
+        return new CsvInput(reader, detectSeparator(headerLine));
+    }
+
+    private static int indexOfLineEnd(char[] buf, int len) {
+        for (int i = 0; i < len; i++) if (buf[i] == '\n' || buf[i] == '\r') return i;
+        return -1;
+    }
+
+    private static boolean isBlank(String s) { return s == null || s.trim().isEmpty(); }
+
+    // the file's layout first; any other known layout only for rows that don't fit it
+    private static LocalDate parseDate(String s, CsvDateFormat fileFormat) {
+        LocalDate d = fileFormat == null ? null : fileFormat.parse(s);
+        if (d == null) d = CsvDateFormat.parseAny(s);
+        if (d == null) throw new IllegalArgumentException("Unrecognized date: " + s);
+        return d;
+    }
+
+    // signed cents: credit columns are money in, debit columns money out
+    private static long parseAmountCents(String amountCol, String creditCol, String debitCol, boolean decimalComma) {
+        if (!isBlank(creditCol) && isBlank(debitCol)) return Math.abs(MoneyParser.parseCents(creditCol, decimalComma));
+        if (!isBlank(debitCol)  && isBlank(creditCol)) return -Math.abs(MoneyParser.parseCents(debitCol, decimalComma));
+        return MoneyParser.parseCents(amountCol, decimalComma);
+    }
+
+    // what makes two rows "the same transaction": amounts at stored precision and
+    // descriptions compared case- and whitespace-insensitively (also FingerprintBackfill)
+    static String contentKey(LocalDate date, String desc, long cents) {
+        String d = WHITESPACE.matcher(desc.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+        return date + "|" + d + "|" + MoneyParser.toBigDecimal(cents).toPlainString();
+    }
+
+    // the `nth` row with this content key in one statement
+    static String fingerprint(String contentKey, int nth) throws Exception {
+        return sha256(contentKey + "|" + nth);
+    }
+
+    private static String sha256(String s) throws Exception {
+        var md = MessageDigest.getInstance("SHA-256");
+        return java.util.HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private static char detectSeparator(String header) {
+        if (header == null) return ',';
+        int commas = count(header, ','), semis = count(header, ';'), tabs = count(header, '\t'), pipes = count(header, '|');
+        int max = 0; char sep = ',';
+        if (commas > max) { max = commas; sep = ','; }
+        if (semis  > max) { max = semis;  sep = ';'; }
+        if (tabs   > max) { max = tabs;   sep = '\t'; }
+        if (pipes  > max) { max = pipes;  sep = '|'; }
+        return max == 0 ? ',' : sep;
+    }
+
+    private static int count(String s, char c) {
+        int n = 0; for (int i = 0; i < s.length(); i++) if (s.charAt(i) == c) n++; return n;
+    }
+
+    private Category ensureIncome() {
+        return categories.getOrCreate("Income", true, null);
+    }
+
+    private void ensureBaseCategories() {
+        ensureIfMissing("Uncategorized", false, CategoryGroup.SURPLUS);
+        ensureIfMissing("Income", true, null);
+        ensureIfMissing("Groceries", false, CategoryGroup.ESSENTIAL);
+        ensureIfMissing("Transport", false, CategoryGroup.ESSENTIAL);
+        ensureIfMissing("Fuel", false, CategoryGroup.ESSENTIAL);
+        ensureIfMissing("Coffee", false, CategoryGroup.SURPLUS);
+        ensureIfMissing("Eating Out", false, CategoryGroup.SURPLUS);
+        ensureIfMissing("Shopping", false, CategoryGroup.SURPLUS);
+        ensureIfMissing("Mortgage", false, CategoryGroup.DEBT);
+        ensureIfMissing("Car Loan", false, CategoryGroup.DEBT);
+        ensureIfMissing("Student Loan", false, CategoryGroup.DEBT);
+        ensureIfMissing("Credit Card Payment", false, CategoryGroup.DEBT);
+    }
+
+    private void ensureIfMissing(String name, Boolean isIncome, CategoryGroup group) {
+        categories.getOrCreate(name, isIncome, group);
+    }
+}
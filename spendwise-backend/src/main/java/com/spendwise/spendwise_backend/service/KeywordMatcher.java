@@ -0,0 +1,133 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.util.*;
+
+// Aho–Corasick automaton over lower-cased keywords. All keywords are matched in a
+// single pass over the text; when several match, the one added first wins.
+// Immutable once built, so a compiled instance can be shared between threads.
+public final class KeywordMatcher<T> {
+
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final List<T> values;
+    private final int[] alphabet;      // char -> column, 0 = "not in any keyword"
+    private final int width;
+    private final int[] delta;         // state * width + column -> next state
+    private final int[] best;          // lowest keyword index ending at (or suffix of) a state
+
+    private KeywordMatcher(List<T> values, int[] alphabet, int width, int[] delta, int[] best) {
+        this.values = values;
+        this.alphabet = alphabet;
+        this.width = width;
+        this.delta = delta;
+        this.best = best;
+    }
+
+    public int size() {
+        return values.size();
+    }
+
+    // value of the first-added keyword that occurs in text, or null
+    public T firstMatch(CharSequence text) {
+        if (text == null || values.isEmpty()) return null;
+        int state = 0, found = NO_MATCH;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            state = delta[state * width + alphabet[c]];
+            if (best[state] < found) {
+                found = best[state];
+                if (found == 0) break;
+            }
+        }
+        return found == NO_MATCH ? null : values.get(found);
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    public static final class Builder<T> {
+        private final List<String> keywords = new ArrayList<>();
+        private final List<T> values = new ArrayList<>();
+
+        // earlier calls take precedence; blank keywords are ignored
+        public Builder<T> add(String keyword, T value) {
+            if (keyword != null && !keyword.isBlank()) {
+                keywords.add(keyword.toLowerCase());
+                values.add(value);
+            }
+            return this;
+        }
+
+        public KeywordMatcher<T> build() {
+            int[] alphabet = new int[Character.MAX_VALUE + 1];
+            int width = 1;
+            for (String k : keywords) {
+                for (int i = 0; i < k.length(); i++) {
+                    char c = Character.toLowerCase(k.charAt(i));
+                    if (alphabet[c] == 0) alphabet[c] = width++;
+                }
+            }
+
+            // trie
+            List<int[]> next = new ArrayList<>();
+            List<Integer> own = new ArrayList<>();
+            next.add(newRow(width));
+            own.add(NO_MATCH);
+            for (int idx = 0; idx < keywords.size(); idx++) {
+                String k = keywords.get(idx);
+                int s = 0;
+                for (int i = 0; i < k.length(); i++) {
+                    int col = alphabet[Character.toLowerCase(k.charAt(i))];
+                    if (next.get(s)[col] < 0) {
+                        next.get(s)[col] = next.size();
+                        next.add(newRow(width));
+                        own.add(NO_MATCH);
+                    }
+                    s = next.get(s)[col];
+                }
+                if (own.get(s) > idx) own.set(s, idx);
+            }
+
+            // failure links (BFS), folded straight into a full transition table
+            int states = next.size();
+            int[] delta = new int[states * width];
+            int[] fail = new int[states];
+            int[] best = new int[states];
+            best[0] = own.get(0);
+            ArrayDeque<Integer> queue = new ArrayDeque<>();
+            for (int col = 0; col < width; col++) {
+                int t = next.get(0)[col];
+                if (t < 0) {
+                    delta[col] = 0;
+                } else {
+                    delta[col] = t;
+                    fail[t] = 0;
+                    best[t] = own.get(t);
+                    queue.add(t);
+                }
+            }
+            while (!queue.isEmpty()) {
+                int s = queue.poll();
+                for (int col = 0; col < width; col++) {
+                    int t = next.get(s)[col];
+                    if (t < 0) {
+                        delta[s * width + col] = delta[fail[s] * width + col];
+                    } else {
+                        delta[s * width + col] = t;
+                        fail[t] = delta[fail[s] * width + col];
+                        best[t] = Math.min(own.get(t), best[fail[t]]);
+                        queue.add(t);
+                    }
+                }
+            }
+            return new KeywordMatcher<>(List.copyOf(values), alphabet, width, delta, best);
+        }
+
+        private static int[] newRow(int width) {
+            int[] row = new int[width];
+            Arrays.fill(row, -1);
+            return row;
+        }
+    }
+}
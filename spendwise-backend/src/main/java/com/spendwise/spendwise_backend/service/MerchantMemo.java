@@ -0,0 +1,173 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.MerchantCategory;
+import com.spendwise.spendwise_backend.repo.MerchantCategoryRepo;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Normalized merchant -> the category the user last picked for it (merchant_category).
+// Up to `app.categorize.memo.max-entries` merchants are held in memory, the most recently
+// taught loaded on first use, so a lookup is usually a normalization and a hash probe.
+// A merchant not held is read from the table once; if it was never taught, that is kept
+// too (up to `max-untaught`, apart from the taught ones, so a statement full of new
+// merchants can't push out what was learned). Every `app.categorize.memo.refresh` the
+// entries other instances taught since are pulled in, so they all agree within that.
+// 0 entries turns lookups off.
+@Service
+public class MerchantMemo {
+
+    public record Learned(String categoryName, CategoryGroup group) {}
+
+    private final MerchantCategoryRepo repo;
+    private final WorkloadLanes lanes;
+    private final int maxEntries;
+    private final int maxUntaught;
+    private final Duration refresh;
+    private final ConcurrentHashMap<String, Learned> byMerchant = new ConcurrentHashMap<>();
+    // merchants in the order they were taught, oldest first; guarded by `this`
+    private final LinkedHashSet<String> order = new LinkedHashSet<>();
+    // merchants the table had nothing for, and the order they were asked about
+    private final Set<String> untaught = ConcurrentHashMap.newKeySet();
+    private final LinkedHashSet<String> untaughtOrder = new LinkedHashSet<>();
+    private volatile boolean loaded;
+    private volatile long nextRefresh;
+    // updated_at of the newest entry seen; guarded by `this`
+    private Instant newest = Instant.EPOCH;
+
+    public MerchantMemo(MerchantCategoryRepo repo, WorkloadLanes lanes, MeterRegistry registry,
+                        @Value("${app.categorize.memo.max-entries:50000}") int maxEntries,
+                        @Value("${app.categorize.memo.max-untaught:50000}") int maxUntaught,
+                        @Value("${app.categorize.memo.refresh:PT30S}") Duration refresh) {
+        this.repo = repo;
+        this.lanes = lanes;
+        this.maxEntries = Math.max(0, maxEntries);
+        this.maxUntaught = Math.max(0, maxUntaught);
+        this.refresh = refresh;
+        Gauge.builder("spendwise.categorize.memo.size", byMerchant, ConcurrentHashMap::size).register(registry);
+    }
+
+    // null when the merchant in `description` hasn't been taught
+    public Learned lookup(String description) {
+        if (maxEntries == 0) return null;
+        String merchant = MerchantNormalizer.normalize(description);
+        if (merchant.isEmpty()) return null;
+        var memo = loaded();
+        refreshIfDue();
+        Learned learned = memo.get(merchant);
+        if (learned != null || untaught.contains(merchant)) return learned;
+        return fetch(merchant);
+    }
+
+    // `merchant` as MerchantNormalizer returns it; persisted, then remembered here
+    public void learn(String merchant, String categoryName, CategoryGroup group) {
+        if (merchant.isEmpty()) return;
+        lanes.lookup(() -> {
+            repo.upsert(merchant, categoryName, group.name());
+            return null;
+        });
+        if (maxEntries == 0) return;
+        loaded();
+        synchronized (this) {
+            remember(merchant, new Learned(categoryName, group));
+        }
+    }
+
+    // drop everything; the next lookup reloads from the DB
+    public synchronized void invalidate() {
+        loaded = false;
+        byMerchant.clear();
+        order.clear();
+        untaught.clear();
+        untaughtOrder.clear();
+        newest = Instant.EPOCH;
+    }
+
+    private ConcurrentHashMap<String, Learned> loaded() {
+        if (!loaded) {
+            synchronized (this) {
+                if (!loaded) {
+                    List<MerchantCategory> recent =
+                            lanes.lookup(() -> repo.findByOrderByUpdatedAtDesc(PageRequest.of(0, maxEntries)));
+                    for (int i = recent.size() - 1; i >= 0; i--) {
+                        remember(recent.get(i));
+                    }
+                    nextRefresh = System.nanoTime() + refresh.toNanos();
+                    loaded = true;
+                }
+            }
+        }
+        return byMerchant;
+    }
+
+    private Learned fetch(String merchant) {
+        Learned learned = lanes.lookup(() -> repo.findById(merchant))
+                .map(m -> new Learned(m.getCategoryName(), m.getGroup()))
+                .orElse(null);
+        synchronized (this) {
+            // taught or refreshed while the table was read: that one is newer
+            Learned current = byMerchant.get(merchant);
+            if (current != null) return current;
+            if (learned != null) remember(merchant, learned);
+            else rememberUntaught(merchant);
+        }
+        return learned;
+    }
+
+    // What other instances taught since the last look, reread with an overlap of one period
+    // so rows committed a little after their updated_at aren't missed. One caller does the
+    // read, outside the lock; lookups meanwhile carry on with what is held.
+    private void refreshIfDue() {
+        long due = nextRefresh;
+        if (System.nanoTime() - due < 0) return;
+        Instant since;
+        synchronized (this) {
+            if (nextRefresh != due) return;
+            nextRefresh = System.nanoTime() + refresh.toNanos();
+            since = newest.minus(refresh);
+        }
+        List<MerchantCategory> changed = lanes.lookup(() -> repo.findByUpdatedAtAfterOrderByUpdatedAt(since));
+        synchronized (this) {
+            for (MerchantCategory m : changed) remember(m);
+        }
+    }
+
+    // caller holds the lock
+    private void remember(MerchantCategory m) {
+        remember(m.getMerchant(), new Learned(m.getCategoryName(), m.getGroup()));
+        if (m.getUpdatedAt().isAfter(newest)) newest = m.getUpdatedAt();
+    }
+
+    // caller holds the lock; evicts the longest-untaught merchants past the bound
+    private void remember(String merchant, Learned learned) {
+        if (untaughtOrder.remove(merchant)) untaught.remove(merchant);
+        order.remove(merchant);
+        order.add(merchant);
+        byMerchant.put(merchant, learned);
+        for (Iterator<String> oldest = order.iterator(); order.size() > maxEntries; ) {
+            byMerchant.remove(oldest.next());
+            oldest.remove();
+        }
+    }
+
+    // caller holds the lock; past the bound the merchant asked about longest ago goes
+    private void rememberUntaught(String merchant) {
+        if (maxUntaught == 0 || !untaughtOrder.add(merchant)) return;
+        untaught.add(merchant);
+        for (Iterator<String> oldest = untaughtOrder.iterator(); untaughtOrder.size() > maxUntaught; ) {
+            untaught.remove(oldest.next());
+            oldest.remove();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.util.Set;
+
+// Reduces a statement description to the merchant it names, so the lines one merchant
+// produces month after month share a key: "POS PURCHASE STARBUCKS #1234 08/12 CARD XX4411"
+// and "Starbucks Store 0977" both become "starbucks".
+// Words are letters and digits; everything else separates them. Dropped:
+//  - numbers and words with 3+ digits (store and terminal numbers, dates, references,
+//    card suffixes like "xx4411"), keeping names like "7eleven" or "3m"
+//  - masks ("xxxx") and the processor noise in NOISE
+// Only the first MAX_WORDS words are kept; what follows is usually the city and state.
+public final class MerchantNormalizer {
+
+    static final int MAX_WORDS = 3;
+
+    private static final Set<String> NOISE = Set.of(
+            "pos", "purchase", "debit", "card", "checkcard", "visa", "mastercard",
+            "ach", "pending", "recurring", "ending", "ref", "store");
+
+    private MerchantNormalizer() {}
+
+    // "" when nothing merchant-like is left
+    public static String normalize(String description) {
+        if (description == null) return "";
+        StringBuilder out = new StringBuilder(32);
+        StringBuilder word = new StringBuilder(16);
+        int kept = 0;
+        int n = description.length();
+        for (int i = 0; i <= n && kept < MAX_WORDS; i++) {
+            char c = i < n ? description.charAt(i) : ' ';
+            if (c == '\'' || c == '\u2019') continue;   // "trader joe's" -> "trader joes"
+            if (Character.isLetterOrDigit(c)) {
+                word.append(Character.toLowerCase(c));
+                continue;
+            }
+            if (!word.isEmpty() && keep(word)) {
+                if (kept++ > 0) out.append(' ');
+                out.append(word);
+            }
+            word.setLength(0);
+        }
+        return out.toString();
+    }
+
+    private static boolean keep(CharSequence word) {
+        int digits = 0, xs = 0;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            if (Character.isDigit(c)) digits++;
+            else if (c == 'x') xs++;
+        }
+        if (digits == word.length() || digits >= 3) return false;
+        if (xs == word.length() && xs >= 2) return false;
+        return !NOISE.contains(word.toString());
+    }
+}
@@ -0,0 +1,85 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.math.BigDecimal;
+
+// Statement amounts in one pass over the cell, straight to signed cents. Accepts what the
+// banks put in those cells: currency symbols, thousands separators, spaces (incl. NBSP),
+// "(12.50)" and leading or trailing minus. Digits past the cents are rounded half away
+// from zero, which is what numeric(12,2) does to them on insert anyway.
+public final class MoneyParser {
+
+    private MoneyParser() {}
+
+    public static long parseCents(CharSequence s) {
+        return parseCents(s, false);
+    }
+
+    // decimalComma: "1.234,56" style, where '.' groups thousands and ',' is the decimal point
+    public static long parseCents(CharSequence s, boolean decimalComma) {
+        if (s == null) throw new IllegalArgumentException("Empty amount");
+        char point = decimalComma ? ',' : '.';
+        char grouping = decimalComma ? '.' : ',';
+
+        int from = 0, to = s.length();
+        while (from < to && s.charAt(from) <= ' ') from++;
+        while (to > from && s.charAt(to - 1) <= ' ') to--;
+        boolean parenNeg = to - from >= 2 && s.charAt(from) == '(' && s.charAt(to - 1) == ')';
+
+        long units = 0;
+        int cents = 0, fracDigits = 0;
+        boolean digits = false, seenPoint = false, leadingMinus = false, trailingMinus = false, roundUp = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                if (trailingMinus) throw bad(s);
+                digits = true;
+                if (!seenPoint) {
+                    // keeps units * 10 in range; whether the cents fit is checked below
+                    if (units > Long.MAX_VALUE / 1000) throw bad(s);
+                    units = units * 10 + (c - '0');
+                } else if (fracDigits < 2) {
+                    cents = cents * 10 + (c - '0');
+                    fracDigits++;
+                } else if (fracDigits++ == 2) {
+                    roundUp = c >= '5';
+                }
+            } else if (c == point) {
+                if (seenPoint || trailingMinus) throw bad(s);
+                seenPoint = true;
+            } else if (c == '-') {
+                // first thing in the number, or last; anything else is not an amount
+                if (!digits && !seenPoint && !leadingMinus) leadingMinus = true;
+                else if (!trailingMinus) trailingMinus = true;
+                else throw bad(s);
+            } else if (!ignorable(c, grouping)) {
+                throw bad(s);
+            }
+        }
+        if (!digits) throw bad(s);
+
+        if (fracDigits == 1) cents *= 10;
+        long v;
+        try {
+            v = Math.addExact(Math.multiplyExact(units, 100L), cents + (roundUp ? 1 : 0));
+        } catch (ArithmeticException e) {
+            throw bad(s);
+        }
+        return parenNeg || leadingMinus || trailingMinus ? -v : v;
+    }
+
+    private static boolean ignorable(char c, char grouping) {
+        return c == grouping || c == '(' || c == ')' || c == '+'
+                || c == '$' || c == '€' || c == '£' || c == '₹'
+                || c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r'
+                || c == '\u00A0' || c == '\u202F';
+    }
+
+    private static IllegalArgumentException bad(CharSequence s) {
+        return new IllegalArgumentException("Bad amount: " + s);
+    }
+
+    // the persistence / API boundary
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+}
@@ -0,0 +1,50 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.repo.MonthlyRollupRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+// Months that hold transactions, with their row counts, so /api/months never scans
+// "transaction". Read from monthly_rollup (one row per month and category) and kept in
+// memory until DataVersions says data changed, on this instance or any other.
+@Service
+@RequiredArgsConstructor
+public class MonthIndex {
+
+    private final MonthlyRollupRepo rollupRepo;
+    private final DataVersions versions;
+
+    private record Snapshot(String version, NavigableMap<YearMonth, Long> counts) {}
+
+    private volatile Snapshot snapshot;
+
+    public void reload() {
+        snapshot = load();
+    }
+
+    // newest first, which is how the UI lists them
+    public Map<YearMonth, Long> counts() {
+        Snapshot s = snapshot;
+        if (s == null || !s.version().equals(versions.etagAll())) {
+            s = load();
+            snapshot = s;
+        }
+        return Collections.unmodifiableMap(s.counts());
+    }
+
+    // version first: a commit in between makes the snapshot look older than it is, not newer
+    private Snapshot load() {
+        String version = versions.etagAll();
+        NavigableMap<YearMonth, Long> fresh = new ConcurrentSkipListMap<>(Comparator.reverseOrder());
+        for (Object[] r : rollupRepo.countsByMonth()) {
+            long n = ((Number) r[1]).longValue();
+            if (n > 0) fresh.put(YearMonth.from((LocalDate) r[0]), n);
+        }
+        return new Snapshot(version, fresh);
+    }
+}
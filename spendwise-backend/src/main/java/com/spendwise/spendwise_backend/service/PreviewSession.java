@@ -0,0 +1,50 @@
+package com.spendwise.spendwise_backend.service;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// What a dry run leaves behind for its commit: the rows it would import, already parsed
+// and categorized, plus the counts the commit reports for rows it won't see again.
+@Getter
+public class PreviewSession {
+    private final String id = UUID.randomUUID().toString();
+    private final Instant createdAt = Instant.now();
+    private final ImportOptions options;
+    @Getter(AccessLevel.NONE) private final StagedRows rows;
+
+    // filled in by the dry run
+    private int skipped, duplicates, errorsTotal;
+    private CsvDateFormat dateFormat;
+    private List<String> errorsSample = List.of();
+
+    PreviewSession(ImportOptions options, int memoryRows) {
+        this.options = options;
+        this.rows = new StagedRows(memoryRows);
+    }
+
+    void finish(int skipped, int duplicates, CsvDateFormat dateFormat, ImportProgress progress)
+            throws java.io.IOException {
+        rows.seal();
+        this.skipped = skipped;
+        this.duplicates = duplicates;
+        this.dateFormat = dateFormat;
+        this.errorsTotal = progress.getErrorsTotal();
+        this.errorsSample = progress.getErrorsSample();
+    }
+
+    public int getRowCount() {
+        return rows.size();
+    }
+
+    StagedRows rows() {
+        return rows;
+    }
+
+    void discard() {
+        rows.close();
+    }
+}
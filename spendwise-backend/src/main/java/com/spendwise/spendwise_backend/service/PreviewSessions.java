@@ -0,0 +1,79 @@
+package com.spendwise.spendwise_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dry-run results waiting for their commit. Sessions expire after `app.import.preview.ttl`,
+// at most `max-sessions` are kept (oldest dropped first), and each holds up to
+// `memory-rows` rows on the heap before spilling to a temp file.
+@Service
+public class PreviewSessions {
+
+    private final Duration ttl;
+    private final int maxSessions;
+    private final int memoryRows;
+    private final Map<String, PreviewSession> sessions = new ConcurrentHashMap<>();
+
+    public PreviewSessions(@Value("${app.import.preview.ttl:PT30M}") Duration ttl,
+                           @Value("${app.import.preview.max-sessions:20}") int maxSessions,
+                           @Value("${app.import.preview.memory-rows:20000}") int memoryRows) {
+        this.ttl = ttl;
+        this.maxSessions = maxSessions;
+        this.memoryRows = memoryRows;
+    }
+
+    PreviewSession open(ImportOptions options) {
+        return new PreviewSession(options, memoryRows);
+    }
+
+    // makes a finished dry run's session available for commit
+    void register(PreviewSession session) {
+        purgeExpired();
+        sessions.put(session.getId(), session);
+        while (sessions.size() > maxSessions) {
+            sessions.values().stream()
+                    .min(Comparator.comparing(PreviewSession::getCreatedAt))
+                    .ifPresent(oldest -> discard(oldest.getId()));
+        }
+    }
+
+    // A session is committed at most once: taking it removes it. The caller discards it.
+    public Optional<PreviewSession> take(String id) {
+        purgeExpired();
+        return Optional.ofNullable(sessions.remove(id));
+    }
+
+    // hands back a taken session that was not committed after all
+    public void putBack(PreviewSession session) {
+        register(session);
+    }
+
+    public boolean discard(String id) {
+        PreviewSession s = sessions.remove(id);
+        if (s != null) s.discard();
+        return s != null;
+    }
+
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        sessions.values().removeIf(s -> {
+            boolean expired = s.getCreatedAt().isBefore(cutoff);
+            if (expired) s.discard();
+            return expired;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        sessions.values().forEach(PreviewSession::discard);
+        sessions.clear();
+    }
+}
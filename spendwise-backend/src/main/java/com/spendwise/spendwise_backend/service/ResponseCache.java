@@ -0,0 +1,40 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+// Small LRU of computed read responses. Keys include the data version, so entries never
+// need invalidating: stale ones simply stop being asked for and age out. Capped by count,
+// so only bounded responses (pages, summaries) go in; see CachedReads.forMonthUncached.
+@Service
+public class ResponseCache {
+
+    private final Map<String, Object> entries;
+
+    public ResponseCache(@Value("${app.cache.max-entries:500}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, Supplier<T> compute) {
+        synchronized (entries) {
+            Object hit = entries.get(key);
+            if (hit != null) return (T) hit;
+        }
+        // computed outside the lock; two racing misses just compute twice
+        T value = compute.get();
+        synchronized (entries) {
+            entries.put(key, value);
+        }
+        return value;
+    }
+}
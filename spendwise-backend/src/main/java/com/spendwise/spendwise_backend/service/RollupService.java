@@ -0,0 +1,176 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.MonthlyRollup;
+import com.spendwise.spendwise_backend.model.Transaction;
+import com.spendwise.spendwise_backend.repo.MonthlyRollupRepo;
+import com.spendwise.spendwise_backend.repo.TransactionRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+// Maintains monthly_rollup: incrementally as imports write rows, or from scratch.
+@Service
+@RequiredArgsConstructor
+public class RollupService {
+
+    private final MonthlyRollupRepo rollupRepo;
+    private final TransactionRepo txRepo;
+    private final DataVersions versions;
+
+    public record MonthTotals(BigDecimal income, BigDecimal expenses, long count,
+                              Map<CategoryGroup, BigDecimal> byGroup) {}
+
+    // Folds freshly inserted rows into the rollup, in the transaction that inserted them.
+    // The months' versions move in the same transaction, so cached reads follow the commit.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void add(List<Transaction> rows) {
+        Map<MonthlyRollup.Key, MonthlyRollup> deltas = new HashMap<>();
+        Set<YearMonth> months = new HashSet<>();
+        for (Transaction t : rows) {
+            LocalDate month = t.getPostedAt().withDayOfMonth(1);
+            months.add(YearMonth.from(month));
+            long categoryId = t.getCategory() == null ? 0L : t.getCategory().getId();
+            var d = deltas.computeIfAbsent(new MonthlyRollup.Key(month, categoryId), k -> MonthlyRollup.builder()
+                    .month(month)
+                    .categoryId(categoryId)
+                    .group(t.getCategory() == null ? null : t.getCategory().getGroup())
+                    .income(BigDecimal.ZERO)
+                    .expense(BigDecimal.ZERO)
+                    .txCount(0L)
+                    .build());
+            BigDecimal amount = t.getAmount();
+            if (amount.signum() > 0) d.setIncome(d.getIncome().add(amount));
+            else if (amount.signum() < 0) d.setExpense(d.getExpense().add(amount.negate()));
+            d.setTxCount(d.getTxCount() + 1);
+        }
+        for (var d : deltas.values()) {
+            rollupRepo.addDelta(d.getMonth(), d.getCategoryId(),
+                    d.getGroup() == null ? null : d.getGroup().name(),
+                    d.getIncome(), d.getExpense(), d.getTxCount());
+        }
+        versions.bump(months);
+    }
+
+    // Recomputes everything from "transaction"; use after bulk changes made outside imports.
+    @Transactional
+    public int rebuild() {
+        rollupRepo.deleteAllRows();
+        int rows = rollupRepo.insertFromTransactions();
+        versions.bumpAll();
+        return rows;
+    }
+
+    // first start with existing data: there is nothing to be incremental on yet
+    @Transactional
+    public void rebuildIfEmpty() {
+        if (rollupRepo.count() == 0 && txRepo.count() > 0) rebuild();
+    }
+
+    // re-copy category groups after categories were regrouped
+    @Transactional
+    public void syncGroups() {
+        if (rollupRepo.syncGroups() > 0) versions.bumpAll();
+    }
+
+    @Transactional(readOnly = true)
+    public MonthTotals totals(YearMonth month) {
+        var totals = new Accumulator();
+        for (Object[] r : rollupRepo.totalsByGroup(month.atDay(1))) totals.add(r[0], r[1], r[2], r[3]);
+        return totals.toTotals();
+    }
+
+    // Every month of [from, to], empty months included, with the rolling 3- and 12-month
+    // averages and the change from the month before. One grouped read over the rollup,
+    // reaching back 11 months before `from` so its averages are complete too. Windows
+    // never reach back past the first month that has any data.
+    @Transactional(readOnly = true)
+    public List<MonthTrend> trend(YearMonth from, YearMonth to) {
+        YearMonth lookback = from.minusMonths(11);
+        Map<YearMonth, Accumulator> byMonth = new TreeMap<>();
+        for (Object[] r : rollupRepo.totalsByMonthAndGroup(lookback.atDay(1), to.atDay(1))) {
+            byMonth.computeIfAbsent(YearMonth.from((LocalDate) r[0]), m -> new Accumulator())
+                    .add(r[1], r[2], r[3], r[4]);
+        }
+        YearMonth first = byMonth.isEmpty() ? from : Collections.min(byMonth.keySet());
+
+        // zero-filled, oldest first; index i is lookback + i months
+        List<Amounts> series = new ArrayList<>();
+        for (YearMonth m = lookback; !m.isAfter(to); m = m.plusMonths(1)) {
+            var a = byMonth.get(m);
+            series.add(a == null ? Amounts.ZERO : new Amounts(a.income, a.expenses, a.income.subtract(a.expenses)));
+        }
+
+        // running sums over the series, so each window is one subtraction
+        int n = series.size();
+        Amounts[] prefix = new Amounts[n + 1];
+        prefix[0] = Amounts.ZERO;
+        for (int i = 0; i < n; i++) prefix[i + 1] = prefix[i].plus(series.get(i));
+        int firstIndex = (int) Math.max(0, lookback.until(first, java.time.temporal.ChronoUnit.MONTHS));
+
+        List<MonthTrend> out = new ArrayList<>();
+        for (int i = 11; i < n; i++) {
+            YearMonth m = lookback.plusMonths(i);
+            var a = byMonth.get(m);
+            MonthTotals totals = a == null ? new Accumulator().toTotals() : a.toTotals();
+            Amounts change = i > firstIndex ? series.get(i).minus(series.get(i - 1)) : null;
+            out.add(new MonthTrend(m, totals, average(prefix, firstIndex, i, 3), average(prefix, firstIndex, i, 12), change));
+        }
+        return out;
+    }
+
+    // mean of the `months`-long window ending at index `end`, clipped to start no earlier than `firstIndex`
+    private static Amounts average(Amounts[] prefix, int firstIndex, int end, int months) {
+        int start = Math.max(end - months + 1, Math.min(firstIndex, end));
+        return prefix[end + 1].minus(prefix[start]).dividedBy(end - start + 1);
+    }
+
+    public record MonthTrend(YearMonth month, MonthTotals totals, Amounts avg3, Amounts avg12, Amounts change) {}
+
+    public record Amounts(BigDecimal income, BigDecimal expenses, BigDecimal net) {
+        static final Amounts ZERO = new Amounts(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO);
+
+        Amounts plus(Amounts o) {
+            return new Amounts(income.add(o.income), expenses.add(o.expenses), net.add(o.net));
+        }
+
+        Amounts minus(Amounts o) {
+            return new Amounts(income.subtract(o.income), expenses.subtract(o.expenses), net.subtract(o.net));
+        }
+
+        Amounts dividedBy(int n) {
+            BigDecimal d = BigDecimal.valueOf(n);
+            return new Amounts(income.divide(d, 2, RoundingMode.HALF_UP), expenses.divide(d, 2, RoundingMode.HALF_UP),
+                    net.divide(d, 2, RoundingMode.HALF_UP));
+        }
+    }
+
+    // sums [group, income, expense, count] rows of one month
+    private static final class Accumulator {
+        BigDecimal income = BigDecimal.ZERO, expenses = BigDecimal.ZERO;
+        long count;
+        final Map<CategoryGroup, BigDecimal> byGroup = new EnumMap<>(CategoryGroup.class);
+
+        Accumulator() {
+            for (CategoryGroup g : CategoryGroup.values()) byGroup.put(g, BigDecimal.ZERO);
+        }
+
+        void add(Object group, Object in, Object out, Object rows) {
+            income = income.add((BigDecimal) in);
+            expenses = expenses.add((BigDecimal) out);
+            count += ((Number) rows).longValue();
+            if (group != null) byGroup.put((CategoryGroup) group, (BigDecimal) out);
+        }
+
+        MonthTotals toTotals() {
+            return new MonthTotals(income, expenses, count, byGroup);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.Category;
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+
+import java.time.LocalDate;
+
+// A parsed, categorized row that is ready to be written once the user's edits are applied.
+// The category is held by name (with what it would be created as) and looked up again in
+// CategoryCache when the row is written, so a preview doesn't pin an entity that may have
+// been renamed or removed before its commit.
+record StagedRow(int line, LocalDate date, String desc, long cents,
+                 String categoryName, boolean income, CategoryGroup group,
+                 String raw, String hash, String fingerprint) {
+
+    StagedRow(int line, LocalDate date, String desc, long cents, Category category,
+              String raw, String hash, String fingerprint) {
+        this(line, date, desc, cents, category.getName(), Boolean.TRUE.equals(category.getIsIncome()),
+                category.getGroup(), raw, hash, fingerprint);
+    }
+}
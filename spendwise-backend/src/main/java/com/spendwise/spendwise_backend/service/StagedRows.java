@@ -0,0 +1,177 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Append-only list of staged rows that moves itself to a gzipped temp file once it holds
+// more than `memoryRows`, so a big preview costs disk rather than heap. Written by one
+// thread, then read back once in order.
+final class StagedRows implements Iterable<StagedRow>, Closeable {
+
+    // closing before the end (a cancelled or failed commit) releases the file
+    interface Cursor extends Iterator<StagedRow>, Closeable {
+        @Override
+        void close();
+    }
+
+    private final int memoryRows;
+    private List<StagedRow> memory = new ArrayList<>();
+    private Path file;
+    private DataOutputStream out;
+    private int size;
+
+    StagedRows(int memoryRows) {
+        this.memoryRows = memoryRows;
+    }
+
+    void add(StagedRow r) throws IOException {
+        size++;
+        if (out != null) {
+            write(out, r);
+            return;
+        }
+        memory.add(r);
+        if (memory.size() > memoryRows) spill();
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean spilled() {
+        return file != null;
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile("spendwise-preview-", ".bin");
+        out = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(Files.newOutputStream(file))));
+        for (StagedRow r : memory) write(out, r);
+        memory = null;
+    }
+
+    // ends writing; reading before this only sees the in-memory case
+    void seal() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    @Override
+    public Cursor iterator() {
+        if (file == null) {
+            Iterator<StagedRow> it = memory.iterator();
+            return new Cursor() {
+                @Override
+                public boolean hasNext() {
+                    return it.hasNext();
+                }
+
+                @Override
+                public StagedRow next() {
+                    return it.next();
+                }
+
+                @Override
+                public void close() {}
+            };
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file))));
+            return new Cursor() {
+                int read;
+
+                @Override
+                public boolean hasNext() {
+                    return read < size;
+                }
+
+                @Override
+                public StagedRow next() {
+                    if (!hasNext()) throw new NoSuchElementException();
+                    try {
+                        StagedRow r = StagedRows.read(in);
+                        if (++read == size) in.close();
+                        return r;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public void close() {
+                    try {
+                        in.close();
+                    } catch (IOException ignored) {}
+                }
+            };
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            if (out != null) out.close();
+            if (file != null) Files.deleteIfExists(file);
+        } catch (IOException ignored) {}
+    }
+
+    /* ---------- file format: one record per row, fields in declaration order ---------- */
+
+    private static void write(DataOutputStream out, StagedRow r) throws IOException {
+        out.writeInt(r.line());
+        out.writeLong(r.date().toEpochDay());
+        writeString(out, r.desc());
+        out.writeLong(r.cents());
+        writeString(out, r.categoryName());
+        out.writeBoolean(r.income());
+        writeString(out, r.group() == null ? null : r.group().name());
+        writeString(out, r.raw());
+        writeString(out, r.hash());
+        writeString(out, r.fingerprint());
+    }
+
+    private static StagedRow read(DataInputStream in) throws IOException {
+        int line = in.readInt();
+        LocalDate date = LocalDate.ofEpochDay(in.readLong());
+        String desc = readString(in);
+        long cents = in.readLong();
+        String name = readString(in);
+        boolean income = in.readBoolean();
+        String group = readString(in);
+        return new StagedRow(line, date, desc, cents, name, income, group == null ? null : CategoryGroup.valueOf(group),
+                readString(in), readString(in), readString(in));
+    }
+
+    // length-prefixed UTF-8; raw rows can outgrow writeUTF's 64KB limit
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] b = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int n = in.readInt();
+        if (n < 0) return null;
+        byte[] b = new byte[n];
+        in.readFully(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,128 @@
+package com.spendwise.spendwise_backend.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+// Bulkheads on database work, so imports and reads can't take each other's connections.
+// Each lane may hold at most its share of the Hikari pool at once; together they stay
+// below the pool size, which leaves room for what runs outside them (seeding and the
+// other startup work). Reads wait briefly for a permit and are then turned away; import
+// writes queue, since admission (ImportAdmission) already bounds how many imports there
+// are. Streamed responses keep their connection for as long as the client takes to read,
+// so they have a lane of their own rather than sitting on the permits short reads need.
+// The lookups imports make while parsing (categories, learned merchants, stored
+// fingerprints) come from one worker per core, so they share a small lane of their own.
+@Component
+public class WorkloadLanes {
+
+    private final Semaphore reads;
+    private final Semaphore imports;
+    private final Semaphore streams;
+    private final Semaphore lookups;
+    private final Duration readWait;
+
+    public WorkloadLanes(@Value("${app.lanes.read.connections:6}") int readConnections,
+                         @Value("${app.lanes.import.connections:3}") int importConnections,
+                         @Value("${app.lanes.stream.connections:2}") int streamConnections,
+                         @Value("${app.lanes.lookup.connections:2}") int lookupConnections,
+                         @Value("${app.lanes.read.wait:PT2S}") Duration readWait,
+                         MeterRegistry registry) {
+        this.reads = new Semaphore(readConnections, true);
+        this.imports = new Semaphore(importConnections, true);
+        this.streams = new Semaphore(streamConnections, true);
+        this.lookups = new Semaphore(lookupConnections, true);
+        this.readWait = readWait;
+        gauge(registry, "read", reads, readConnections);
+        gauge(registry, "import", imports, importConnections);
+        gauge(registry, "stream", streams, streamConnections);
+        gauge(registry, "lookup", lookups, lookupConnections);
+    }
+
+    // Held by a streamed response until it is written; closing twice releases once.
+    public interface Permit extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static void gauge(MeterRegistry registry, String lane, Semaphore s, int permits) {
+        Gauge.builder("spendwise.lane.active", s, x -> permits - x.availablePermits())
+                .description("Database permits in use per workload lane")
+                .tag("lane", lane)
+                .register(registry);
+        Gauge.builder("spendwise.lane.waiting", s, Semaphore::getQueueLength)
+                .description("Threads waiting for a database permit per workload lane")
+                .tag("lane", lane)
+                .register(registry);
+    }
+
+    public <T> T read(Supplier<T> work) {
+        try {
+            if (!reads.tryAcquire(readWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new BusyException(BusyException.Lane.READ, Duration.ofSeconds(1), "Too many reads in progress");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted waiting for a read permit");
+        }
+        try {
+            return work.get();
+        } finally {
+            reads.release();
+        }
+    }
+
+    // Taken before the response starts, so a full lane is still a clean 503; the stream
+    // closes it once written (or failed).
+    public Permit stream() {
+        try {
+            if (!streams.tryAcquire(readWait.toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new BusyException(BusyException.Lane.STREAM, Duration.ofSeconds(5), "Too many downloads in progress");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted waiting for a stream permit");
+        }
+        AtomicBoolean closed = new AtomicBoolean();
+        return () -> {
+            if (closed.compareAndSet(false, true)) streams.release();
+        };
+    }
+
+    // queues like import writes; these are single short statements, and never nested
+    public <T> T lookup(Supplier<T> work) {
+        try {
+            lookups.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted waiting for a lookup permit");
+        }
+        try {
+            return work.get();
+        } finally {
+            lookups.release();
+        }
+    }
+
+    public void importWrite(Runnable work) {
+        try {
+            imports.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("interrupted waiting for an import permit");
+        }
+        try {
+            work.run();
+        } finally {
+            imports.release();
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.spendwise.spendwise_backend.service.BusyException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+import java.util.Map;
+
+// Saturated import lane: 429, the client sent too much work. Saturated read or stream lane: 503.
+// Both say when to retry, so clients back off instead of piling up behind timeouts.
+@RestControllerAdvice
+public class BusyExceptionHandler {
+
+    @ExceptionHandler(BusyException.class)
+    public ResponseEntity<Map<String, Object>> busy(BusyException e) {
+        var status = e.getLane() == BusyException.Lane.IMPORT ? HttpStatus.TOO_MANY_REQUESTS : HttpStatus.SERVICE_UNAVAILABLE;
+        long seconds = Math.max(1, e.getRetryAfter().toSeconds());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, Long.toString(seconds))
+                .body(Map.of("error", e.getMessage(), "retryAfterSeconds", seconds));
+    }
+}
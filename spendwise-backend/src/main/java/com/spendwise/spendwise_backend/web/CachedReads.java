@@ -0,0 +1,89 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.spendwise.spendwise_backend.service.DataVersions;
+import com.spendwise.spendwise_backend.service.ResponseCache;
+import com.spendwise.spendwise_backend.service.WorkloadLanes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.time.YearMonth;
+import java.util.function.Supplier;
+
+// ETag / If-None-Match handling for read endpoints. Returns null when the client's copy
+// is current (Spring then answers 304 without a body), otherwise the cached or freshly
+// computed response. Counts 304s, hits and misses per endpoint and times the misses.
+// Only misses touch the database, so only they take a permit in the read lane.
+@Component
+@RequiredArgsConstructor
+public class CachedReads {
+
+    private final DataVersions versions;
+    private final ResponseCache cache;
+    private final MeterRegistry registry;
+    private final WorkloadLanes lanes;
+
+    // `query` names the endpoint in metrics and the cache key; `params` tells its variants apart
+    public <T> T forMonth(NativeWebRequest request, YearMonth month, String query, String params, Supplier<T> compute) {
+        return respond(request, versions.etag(month), query, month + ":" + params, compute);
+    }
+
+    // Revalidated the same way, but not kept: for responses of unbounded size (a whole
+    // month's listing), so the entry cap of the cache also caps the memory it holds.
+    public <T> T forMonthUncached(NativeWebRequest request, YearMonth month, String query, Supplier<T> compute) {
+        if (notModified(request, versions.etag(month), query)) return null;
+        outcome(query, "uncached");
+        return timed(query, compute);
+    }
+
+    public <T> T forRange(NativeWebRequest request, YearMonth from, YearMonth to, String query, Supplier<T> compute) {
+        return respond(request, versions.etag(from, to), query, from + "_" + to, compute);
+    }
+
+    public <T> T forAll(NativeWebRequest request, String query, Supplier<T> compute) {
+        return forAll(request, query, "", compute);
+    }
+
+    public <T> T forAll(NativeWebRequest request, String query, String params, Supplier<T> compute) {
+        return respond(request, versions.etagAll(), query, params, compute);
+    }
+
+    private <T> T respond(NativeWebRequest request, String etag, String query, String params, Supplier<T> compute) {
+        if (notModified(request, etag, query)) return null;
+        boolean[] computed = {false};
+        T out = cache.get(query + ":" + params + "@" + etag, () -> {
+            computed[0] = true;
+            return timed(query, compute);
+        });
+        outcome(query, computed[0] ? "miss" : "hit");
+        return out;
+    }
+
+    private boolean notModified(NativeWebRequest request, String etag, String query) {
+        // revalidate every time; the 304 makes that cheap
+        var response = request.getNativeResponse(HttpServletResponse.class);
+        if (response != null) response.setHeader(HttpHeaders.CACHE_CONTROL, "no-cache");
+
+        if (!request.checkNotModified(etag)) return false;
+        outcome(query, "not_modified");
+        return true;
+    }
+
+    // database latency of the endpoint, without cache hits and 304s mixed in
+    private <T> T timed(String query, Supplier<T> compute) {
+        return Timer.builder("spendwise.query")
+                .description("Time to compute a read endpoint's response")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(() -> lanes.read(compute));
+    }
+
+    private void outcome(String query, String result) {
+        registry.counter("spendwise.query.cache", "query", query, "result", result).increment();
+    }
+}
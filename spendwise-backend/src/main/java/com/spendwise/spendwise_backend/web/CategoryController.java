@@ -3,6 +3,7 @@ package com.spendwise.spendwise_backend.web;
 import com.spendwise.spendwise_backend.model.Category;
 import com.spendwise.spendwise_backend.model.CategoryGroup;
 import com.spendwise.spendwise_backend.repo.CategoryRepo;
+import com.spendwise.spendwise_backend.service.CategoryCache;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 
@@ -15,6 +16,7 @@ import java.util.stream.Collectors;
 public class CategoryController {
 
     private final CategoryRepo categoryRepo;
+    private final CategoryCache categories;
 
     record CategoryDto(Long id, String name, String group, boolean isIncome) {
         static CategoryDto from(Category c) {
@@ -45,22 +47,17 @@ public class CategoryController {
             throw new IllegalArgumentException("Category name is required");
         }
 
-        // idempotent: return existing if present
-        var existing = categoryRepo.findByNameIgnoreCase(req.name().trim());
-        if (existing.isPresent()) return CategoryDto.from(existing.get());
-
         boolean income = Boolean.TRUE.equals(req.isIncome());
         CategoryGroup group = null;
         if (!income && req.group() != null && !req.group().isBlank()) {
             group = CategoryGroup.valueOf(req.group().trim().toUpperCase());
         }
 
-        var c = Category.builder()
-                .name(req.name().trim())
-                .isIncome(income)
-                .group(income ? null : group) // income must have null group
-                .build();
-
-        return CategoryDto.from(categoryRepo.save(c));
+        // idempotent: return existing if present (goes through the cache so imports see it)
+        return CategoryDto.from(categories.getOrCreate(
+                req.name(),
+                income,
+                income ? null : group // income must have null group
+        ));
     }
 }
@@ -0,0 +1,71 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.CategoryRule;
+import com.spendwise.spendwise_backend.repo.CategoryRuleRepo;
+import com.spendwise.spendwise_backend.service.CategorizationService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@RestController
+@RequestMapping("/api/category-rules")
+@RequiredArgsConstructor
+public class CategoryRuleController {
+
+    // new rules go after the seeded ones of the same group unless told otherwise
+    private static final int DEFAULT_PRIORITY = 1000;
+
+    private final CategoryRuleRepo ruleRepo;
+    private final CategorizationService categorization;
+
+    record RuleDto(Long id, String keyword, String category, String group, int priority) {
+        static RuleDto from(CategoryRule r) {
+            return new RuleDto(r.getId(), r.getKeyword(), r.getCategoryName(), r.getGroup().name(), r.getPriority());
+        }
+    }
+
+    record CreateRuleRequest(String keyword, String category, String group, Integer priority) {}
+
+    // in the order they are tried: the first rule whose keyword matches wins
+    @GetMapping
+    public Map<String, Object> list() {
+        var all = ruleRepo.findAll()
+                .stream()
+                .sorted(CategorizationService.EVALUATION_ORDER)
+                .map(RuleDto::from)
+                .collect(Collectors.toList());
+        return Map.of("rules", all);
+    }
+
+    @PostMapping
+    public RuleDto create(@RequestBody CreateRuleRequest req) {
+        if (req == null || req.keyword() == null || req.keyword().isBlank()
+                || req.category() == null || req.category().isBlank()) {
+            throw new IllegalArgumentException("Rule keyword and category are required");
+        }
+
+        // one rule per keyword: re-posting updates it
+        var r = ruleRepo.findByKeywordIgnoreCase(req.keyword().trim())
+                .orElseGet(() -> CategoryRule.builder().keyword(req.keyword().trim().toLowerCase()).build());
+        r.setCategoryName(req.category().trim());
+        r.setGroup(req.group() == null || req.group().isBlank()
+                ? CategoryGroup.SURPLUS
+                : CategoryGroup.valueOf(req.group().trim().toUpperCase()));
+        r.setPriority(req.priority() != null ? req.priority()
+                : r.getPriority() != null ? r.getPriority() : DEFAULT_PRIORITY);
+
+        var saved = ruleRepo.save(r);
+        categorization.rulesChanged();
+        return RuleDto.from(saved);
+    }
+
+    @DeleteMapping("/{id}")
+    public Map<String, Object> delete(@PathVariable Long id) {
+        ruleRepo.deleteById(id);
+        categorization.rulesChanged();
+        return Map.of("deleted", id);
+    }
+}
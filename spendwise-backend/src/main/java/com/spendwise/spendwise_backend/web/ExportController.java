@@ -0,0 +1,204 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendwise.spendwise_backend.repo.TransactionExport;
+import com.spendwise.spendwise_backend.service.DataVersions;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.zip.GZIPOutputStream;
+
+// Transactions of any date range as a download, written while the rows are read, so a
+// month and ten years cost the same memory. CSV (default) or NDJSON, one object per line.
+// `columns` picks and orders the fields (default date, description, amount, category,
+// group; also id, hash and raw, the statement row it was imported from). gzip=true sends
+// a .gz file instead.
+@RestController
+@RequestMapping("/api/export")
+@RequiredArgsConstructor
+public class ExportController {
+
+    enum Column { ID, DATE, DESCRIPTION, AMOUNT, CATEGORY, GROUP, HASH, RAW }
+
+    private static final List<Column> DEFAULT_COLUMNS =
+            List.of(Column.DATE, Column.DESCRIPTION, Column.AMOUNT, Column.CATEGORY, Column.GROUP);
+    private static final int BUFFER = 64 * 1024;
+
+    private final TransactionExport export;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final DataVersions versions;
+    private final StreamedResponses streams;
+
+    // from/to are dates (yyyy-MM-dd), inclusive; without them the range is open-ended
+    @GetMapping("/transactions")
+    public ResponseEntity<StreamingResponseBody> transactions(@RequestParam(name = "from", required = false) String from,
+                                                              @RequestParam(name = "to", required = false) String to,
+                                                              @RequestParam(name = "format", defaultValue = "csv") String format,
+                                                              @RequestParam(name = "columns", required = false) String columns,
+                                                              @RequestParam(name = "gzip", defaultValue = "false") boolean gzip,
+                                                              NativeWebRequest request) {
+        LocalDate start = parseDate(from);
+        LocalDate end = parseDate(to);
+        if (start != null && end != null && start.isAfter(end)) {
+            throw new IllegalArgumentException("from must not be after to");
+        }
+        boolean ndjson = switch (format.trim().toLowerCase(Locale.ROOT)) {
+            case "csv" -> false;
+            case "ndjson" -> true;
+            default -> throw new IllegalArgumentException("Unknown format: " + format + " (csv or ndjson)");
+        };
+        List<Column> cols = parseColumns(columns);
+
+        String version = start != null && end != null
+                ? versions.etag(YearMonth.from(start), YearMonth.from(end))
+                : versions.etagAll();
+        if (request.checkNotModified(etag(version, ndjson, cols, gzip))) return null;
+
+        String filename = "transactions" + (start != null ? "_" + start : "") + (end != null ? "_" + end : "")
+                + (ndjson ? ".ndjson" : ".csv") + (gzip ? ".gz" : "");
+        MediaType type = gzip ? MediaType.parseMediaType("application/gzip")
+                : ndjson ? MediaType.APPLICATION_NDJSON
+                : new MediaType("text", "csv", StandardCharsets.UTF_8);
+
+        var readOnly = new TransactionTemplate(tx.getTransactionManager());
+        readOnly.setReadOnly(true);
+        // the cursor holds a connection for the whole download, so it runs in the stream
+        // lane; short reads keep theirs
+        StreamingResponseBody body = streams.inStreamLane(request, out -> readOnly.execute(status -> {
+            try {
+                GZIPOutputStream zipped = gzip ? new GZIPOutputStream(out, BUFFER) : null;
+                Writer w = new BufferedWriter(new OutputStreamWriter(zipped != null ? zipped : out, StandardCharsets.UTF_8), BUFFER);
+                if (ndjson) writeNdjson(w, cols, start, end);
+                else writeCsv(w, cols, start, end);
+                w.flush();
+                if (zipped != null) zipped.finish();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }));
+        return ResponseEntity.ok()
+                .contentType(type)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString())
+                .body(body);
+    }
+
+    private void writeCsv(Writer w, List<Column> cols, LocalDate start, LocalDate end) throws IOException {
+        for (int i = 0; i < cols.size(); i++) {
+            if (i > 0) w.write(',');
+            w.write(cols.get(i).name().toLowerCase(Locale.ROOT));
+        }
+        w.write("\r\n");
+        export.forEach(start, end, cols.contains(Column.RAW), row -> {
+            try {
+                for (int i = 0; i < cols.size(); i++) {
+                    if (i > 0) w.write(',');
+                    String v = value(row, cols.get(i));
+                    if (v != null) w.write(csvCell(v));
+                }
+                w.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void writeNdjson(Writer w, List<Column> cols, LocalDate start, LocalDate end) throws IOException {
+        JsonGenerator gen = mapper.createGenerator(w);
+        gen.setRootValueSeparator(null);
+        export.forEach(start, end, cols.contains(Column.RAW), row -> {
+            try {
+                gen.writeStartObject();
+                for (Column c : cols) {
+                    gen.writeFieldName(c.name().toLowerCase(Locale.ROOT));
+                    switch (c) {
+                        case ID -> gen.writeNumber(row.id());
+                        case AMOUNT -> gen.writeNumber(row.amount());
+                        // stored as JSON already (header -> cell)
+                        case RAW -> {
+                            if (row.raw() == null) gen.writeNull();
+                            else gen.writeRawValue(row.raw());
+                        }
+                        default -> gen.writeString(value(row, c));
+                    }
+                }
+                gen.writeEndObject();
+                gen.writeRaw('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        gen.flush();
+    }
+
+    // the data's version plus everything that changes the bytes, so revalidating one
+    // representation never answers 304 for another
+    private static String etag(String version, boolean ndjson, List<Column> cols, boolean gzip) {
+        StringBuilder tag = new StringBuilder().append(version, 0, version.length() - 1)
+                .append('-').append(ndjson ? "ndjson" : "csv").append('-');
+        for (int i = 0; i < cols.size(); i++) {
+            if (i > 0) tag.append('.');
+            tag.append(cols.get(i).name().toLowerCase(Locale.ROOT));
+        }
+        if (gzip) tag.append("-gzip");
+        return tag.append('"').toString();
+    }
+
+    private static String value(TransactionExport.Row row, Column c) {
+        return switch (c) {
+            case ID -> Long.toString(row.id());
+            case DATE -> row.date().toString();
+            case DESCRIPTION -> row.description();
+            case AMOUNT -> row.amount().toPlainString();
+            case CATEGORY -> row.category();
+            case GROUP -> row.group();
+            case HASH -> row.hash();
+            case RAW -> row.raw();
+        };
+    }
+
+    // RFC 4180: quoted when it holds a separator, quote or line break; quotes doubled
+    private static String csvCell(String v) {
+        for (int i = 0; i < v.length(); i++) {
+            char c = v.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return '"' + v.replace("\"", "\"\"") + '"';
+            }
+        }
+        return v;
+    }
+
+    private static List<Column> parseColumns(String columns) {
+        if (columns == null || columns.isBlank()) return DEFAULT_COLUMNS;
+        Set<Column> picked = new LinkedHashSet<>();
+        for (String name : columns.split(",")) {
+            if (name.isBlank()) continue;
+            try {
+                picked.add(Column.valueOf(name.trim().toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown column: " + name.trim()
+                        + " (one of " + Arrays.toString(Column.values()).toLowerCase(Locale.ROOT) + ")");
+            }
+        }
+        if (picked.isEmpty()) return DEFAULT_COLUMNS;
+        return List.copyOf(picked);
+    }
+
+    private static LocalDate parseDate(String s) {
+        return s == null || s.isBlank() ? null : LocalDate.parse(s.trim()); // ISO "yyyy-MM-dd"
+    }
+}
@@ -1,14 +1,24 @@
 package com.spendwise.spendwise_backend.web;
 
+import com.spendwise.spendwise_backend.config.BackgroundMaintenance;
+import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 @RestController
+@RequiredArgsConstructor
 public class HealthController {
+    private final BackgroundMaintenance maintenance;
+
+    // "ok" once serving; the rest is how far the background startup steps are
     @GetMapping("/api/health")
     public Map<String, String> health() {
-        return Map.of("status", "ok");
+        Map<String, String> out = new LinkedHashMap<>();
+        out.put("status", "ok");
+        out.putAll(maintenance.status());
+        return out;
     }
 }
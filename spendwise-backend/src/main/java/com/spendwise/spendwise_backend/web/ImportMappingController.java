@@ -0,0 +1,63 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.spendwise.spendwise_backend.model.ImportMapping;
+import com.spendwise.spendwise_backend.repo.ImportMappingRepo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.*;
+
+// Named per-bank column mappings, used by passing `mapping=<name>` to an import.
+@RestController
+@RequestMapping("/api/import/mappings")
+@RequiredArgsConstructor
+public class ImportMappingController {
+
+    private final ImportMappingRepo mappingRepo;
+
+    record MappingRequest(String name, String date, String description, String amount, String credit, String debit) {}
+
+    @GetMapping
+    public Map<String, Object> list() {
+        var all = mappingRepo.findAll()
+                .stream()
+                .sorted(Comparator.comparing(ImportMapping::getName, String.CASE_INSENSITIVE_ORDER))
+                .toList();
+        return Map.of("mappings", all);
+    }
+
+    @PostMapping
+    public ImportMapping save(@RequestBody MappingRequest req) {
+        if (req == null || req.name() == null || req.name().isBlank()) {
+            throw new IllegalArgumentException("Mapping name is required");
+        }
+        if (blank(req.date()) && blank(req.description()) && blank(req.amount())
+                && blank(req.credit()) && blank(req.debit())) {
+            throw new IllegalArgumentException("Mapping needs at least one column");
+        }
+
+        // one mapping per name: re-posting replaces it
+        var m = mappingRepo.findByNameIgnoreCase(req.name().trim())
+                .orElseGet(() -> ImportMapping.builder().name(req.name().trim()).build());
+        m.setDateColumn(trimToNull(req.date()));
+        m.setDescriptionColumn(trimToNull(req.description()));
+        m.setAmountColumn(trimToNull(req.amount()));
+        m.setCreditColumn(trimToNull(req.credit()));
+        m.setDebitColumn(trimToNull(req.debit()));
+        return mappingRepo.save(m);
+    }
+
+    @DeleteMapping("/{id}")
+    public Map<String, Object> delete(@PathVariable Long id) {
+        mappingRepo.deleteById(id);
+        return Map.of("deleted", id);
+    }
+
+    private static boolean blank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    private static String trimToNull(String s) {
+        return blank(s) ? null : s.trim();
+    }
+}
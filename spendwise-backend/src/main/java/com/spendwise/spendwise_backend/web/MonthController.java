@@ -1,27 +1,32 @@
 package com.spendwise.spendwise_backend.web;
 
-import jakarta.persistence.EntityManager;
+import com.spendwise.spendwise_backend.service.MonthIndex;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 
 @RestController
 @RequestMapping("/api/months")
 @RequiredArgsConstructor
 public class MonthController {
-    private final EntityManager em;
+    private final MonthIndex monthIndex;
+    private final CachedReads cached;
 
+    // served from the in-memory month index; `counts` lets the UI skip near-empty months
     @GetMapping
-    public Map<String, Object> months() {
-        @SuppressWarnings("unchecked")
-        List<String> months = em.createNativeQuery("""
-      select to_char(date_trunc('month', posted_at), 'YYYY-MM') as ym
-      from "transaction"
-      group by 1
-      order by 1 desc
-    """).getResultList();
-        return Map.of("months", months);
+    public Map<String, Object> months(NativeWebRequest request) {
+        return cached.forAll(request, "months", this::loadMonths);
+    }
+
+    private Map<String, Object> loadMonths() {
+        List<String> months = new ArrayList<>();
+        Map<String, Long> counts = new LinkedHashMap<>();
+        monthIndex.counts().forEach((m, n) -> {
+            months.add(m.toString());
+            counts.put(m.toString(), n);
+        });
+        return Map.of("months", months, "counts", counts);
     }
 }
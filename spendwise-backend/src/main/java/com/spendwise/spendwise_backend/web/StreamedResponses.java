@@ -0,0 +1,38 @@
+package com.spendwise.spendwise_backend.web;
+
+import com.spendwise.spendwise_backend.service.WorkloadLanes;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.util.concurrent.Callable;
+
+// Streamed responses run in the stream lane. The permit is taken while the request is
+// still being handled, so a full lane is a clean 503, and it is given back when the async
+// request completes however it ends: written, failed, timed out, client gone, or the
+// task never started. Not only when the body gets to run.
+@Component
+@RequiredArgsConstructor
+class StreamedResponses {
+
+    private final WorkloadLanes lanes;
+
+    // call last, once nothing else in the handler can fail
+    StreamingResponseBody inStreamLane(NativeWebRequest request, StreamingResponseBody body) {
+        var permit = lanes.stream();
+        WebAsyncUtils.getAsyncManager(request).registerCallableInterceptor(permit, new CallableProcessingInterceptor() {
+            @Override
+            public <T> void afterCompletion(NativeWebRequest r, Callable<T> task) {
+                permit.close();
+            }
+        });
+        return out -> {
+            try (permit) {
+                body.writeTo(out);
+            }
+        };
+    }
+}
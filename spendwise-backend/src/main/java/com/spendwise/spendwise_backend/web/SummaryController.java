@@ -1,12 +1,13 @@
 package com.spendwise.spendwise_backend.web;
 
 import com.spendwise.spendwise_backend.model.CategoryGroup;
-import jakarta.persistence.EntityManager;
+import com.spendwise.spendwise_backend.service.RollupService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
 
-import java.math.BigDecimal;
-import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
 
 @RestController
@@ -14,45 +15,74 @@ import java.util.*;
 @RequiredArgsConstructor
 public class SummaryController {
 
-    private final EntityManager em;
+    private static final int MAX_TREND_MONTHS = 120;
+
+    private final RollupService rollups;
+    private final CachedReads cached;
 
     @GetMapping("/monthly/by-group")
-    public Map<String,Object> byGroup(@RequestParam String month) {
-        LocalDate start = LocalDate.parse(month + "-01");
-        LocalDate end = start.withDayOfMonth(start.lengthOfMonth());
-
-        BigDecimal income = (BigDecimal) em.createQuery("""
-        select coalesce(sum(t.amount), 0) from Transaction t
-        where t.postedAt between :s and :e and t.amount > 0
-      """).setParameter("s", start).setParameter("e", end).getSingleResult();
-
-        BigDecimal expenses = ((BigDecimal) em.createQuery("""
-        select coalesce(sum(t.amount), 0) from Transaction t
-        where t.postedAt between :s and :e and t.amount < 0
-      """).setParameter("s", start).setParameter("e", end).getSingleResult()).abs();
-
-        @SuppressWarnings("unchecked")
-        List<Object[]> rows = em.createQuery("""
-        select c.group, abs(coalesce(sum(t.amount), 0))
-        from Transaction t left join t.category c
-        where t.postedAt between :s and :e and t.amount < 0 and c.group is not null
-        group by c.group
-      """).setParameter("s", start).setParameter("e", end).getResultList();
-
-        Map<CategoryGroup, BigDecimal> byGroup = new EnumMap<>(CategoryGroup.class);
-        for (CategoryGroup g : CategoryGroup.values()) byGroup.put(g, BigDecimal.ZERO);
-        for (Object[] r : rows) byGroup.put((CategoryGroup) r[0], (BigDecimal) r[1]);
+    public Map<String,Object> byGroup(@RequestParam String month, NativeWebRequest request) {
+        YearMonth ym = YearMonth.parse(month);
+        return cached.forMonth(request, ym, "by-group", "", () -> loadByGroup(month, ym));
+    }
+
+    private Map<String,Object> loadByGroup(String month, YearMonth ym) {
+        // one small read from monthly_rollup instead of three scans over the month
+        var totals = rollups.totals(ym);
+        var byGroup = totals.byGroup();
 
         return Map.of(
                 "month", month,
-                "income", income,
-                "expenses", expenses,
+                "income", totals.income(),
+                "expenses", totals.expenses(),
                 "byGroup", Map.of(
                         "ESSENTIAL", byGroup.get(CategoryGroup.ESSENTIAL),
                         "SURPLUS",   byGroup.get(CategoryGroup.SURPLUS),
                         "DEBT",      byGroup.get(CategoryGroup.DEBT)
                 ),
-                "net", income.subtract(expenses)
+                "net", totals.income().subtract(totals.expenses())
         );
     }
+
+    // Per-month totals for a chart: income, expenses, net and group split of every month in
+    // [from, to], plus rolling 3/12-month averages and the change from the previous month.
+    @GetMapping("/trend")
+    public Map<String,Object> trend(@RequestParam String from, @RequestParam String to, NativeWebRequest request) {
+        YearMonth f = YearMonth.parse(from), t = YearMonth.parse(to);
+        if (f.isAfter(t)) throw new IllegalArgumentException("`from` is after `to`");
+        if (f.until(t, ChronoUnit.MONTHS) >= MAX_TREND_MONTHS) {
+            throw new IllegalArgumentException("Trend range is limited to " + MAX_TREND_MONTHS + " months");
+        }
+        // the 12-month averages read 11 months before `from`
+        return cached.forRange(request, f.minusMonths(11), t, "trend", () -> loadTrend(from, to, f, t));
+    }
+
+    private Map<String,Object> loadTrend(String from, String to, YearMonth f, YearMonth t) {
+        List<Map<String,Object>> months = new ArrayList<>();
+        for (var m : rollups.trend(f, t)) {
+            var totals = m.totals();
+            Map<String,Object> row = new LinkedHashMap<>();
+            row.put("month", m.month().toString());
+            row.put("income", totals.income());
+            row.put("expenses", totals.expenses());
+            row.put("net", totals.income().subtract(totals.expenses()));
+            row.put("count", totals.count());
+            row.put("byGroup", Map.of(
+                    "ESSENTIAL", totals.byGroup().get(CategoryGroup.ESSENTIAL),
+                    "SURPLUS",   totals.byGroup().get(CategoryGroup.SURPLUS),
+                    "DEBT",      totals.byGroup().get(CategoryGroup.DEBT)
+            ));
+            row.put("avg3", m.avg3());
+            row.put("avg12", m.avg12());
+            row.put("change", m.change()); // null for months before any data
+            months.add(row);
+        }
+        return Map.of("from", from, "to", to, "months", months);
+    }
+
+    // recompute all rollups after bulk changes made outside the import path
+    @PostMapping("/rollup/rebuild")
+    public Map<String,Object> rebuildRollup() {
+        return Map.of("rows", rollups.rebuild());
+    }
 }
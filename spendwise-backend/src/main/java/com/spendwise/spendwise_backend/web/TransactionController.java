@@ -1,77 +1,204 @@
 package com.spendwise.spendwise_backend.web;
 
-import com.spendwise.spendwise_backend.model.Transaction;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.spendwise.spendwise_backend.repo.RawRowStore;
 import com.spendwise.spendwise_backend.repo.TransactionRepo;
+import com.spendwise.spendwise_backend.repo.TransactionSearch;
+import com.spendwise.spendwise_backend.service.DataVersions;
+import com.spendwise.spendwise_backend.service.RollupService;
+import com.spendwise.spendwise_backend.service.WorkloadLanes;
+import com.spendwise.spendwise_backend.web.dto.TransactionDto;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.util.*;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/transactions")
 @RequiredArgsConstructor
 public class TransactionController {
 
-    private final TransactionRepo transactionRepo;
+    private static final int MAX_PAGE = 1000;
+    private static final int MAX_SEARCH_PAGE = 200;
 
-    public record TransactionDto(
-            Long id,
-            LocalDate date,
-            String description,
-            BigDecimal amount,
-            String category,
-            String group,
-            String hash
-    ) {
-        public static TransactionDto from(Transaction t) {
-            String categoryName = (t.getCategory() != null) ? t.getCategory().getName() : null;
-            String groupName = (t.getCategory() != null && t.getCategory().getGroup() != null)
-                    ? t.getCategory().getGroup().name()
-                    : null;
-            return new TransactionDto(
-                    t.getId(),
-                    t.getPostedAt(),
-                    t.getDescription(),
-                    t.getAmount(),
-                    categoryName,
-                    groupName,
-                    t.getHash()
-            );
-        }
-    }
+    private final TransactionRepo transactionRepo;
+    private final RollupService rollups;
+    private final TransactionTemplate tx;
+    private final ObjectMapper mapper;
+    private final CachedReads cached;
+    private final DataVersions versions;
+    private final RawRowStore rawRows;
+    private final WorkloadLanes lanes;
+    private final StreamedResponses streams;
+    private final TransactionSearch search;
 
+    // Without `limit` this returns the whole month as before. With it, one keyset page
+    // (ordered by date, id) plus `nextCursor` to pass back as `cursor`, null on the last page.
     @GetMapping
-    public Map<String, Object> listByMonth(@RequestParam("month") String month) {
+    public Map<String, Object> listByMonth(@RequestParam("month") String month,
+                                           @RequestParam(name = "limit", required = false) Integer limit,
+                                           @RequestParam(name = "cursor", required = false) String cursor,
+                                           NativeWebRequest request) {
         // month format: YYYY-MM
         YearMonth ym = YearMonth.parse(month); // ISO "yyyy-MM"
+        // a whole month can be any size, so only pages are kept in the response cache
+        if (limit == null) {
+            return cached.forMonthUncached(request, ym, "transactions", () -> loadPage(month, ym, null, cursor));
+        }
+        return cached.forMonth(request, ym, "transactions", limit + ":" + cursor,
+                () -> loadPage(month, ym, limit, cursor));
+    }
+
+    private Map<String, Object> loadPage(String month, YearMonth ym, Integer limit, String cursor) {
         LocalDate start = ym.atDay(1);
         LocalDate end = ym.atEndOfMonth();
 
-        List<Transaction> entities = transactionRepo.findByPostedAtBetweenOrderByPostedAtAsc(start, end);
-        List<TransactionDto> txs = entities.stream().map(TransactionDto::from).collect(Collectors.toList());
-
-        BigDecimal income = entities.stream()
-                .map(Transaction::getAmount)
-                .filter(a -> a.signum() > 0)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        BigDecimal expenses = entities.stream()
-                .map(Transaction::getAmount)
-                .filter(a -> a.signum() < 0)
-                .map(BigDecimal::abs)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
-
-        return Map.of(
-                "month", month,
-                "count", txs.size(),
-                "income", income,
-                "expenses", expenses,
-                "net", income.subtract(expenses),
-                "transactions", txs
-        );
+        // "before the first row" unless a cursor says otherwise
+        LocalDate afterDate = start.minusDays(1);
+        long afterId = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.indexOf('_');
+            if (sep < 0) throw new IllegalArgumentException("Bad cursor: " + cursor);
+            afterDate = LocalDate.parse(cursor.substring(0, sep));
+            afterId = Long.parseLong(cursor.substring(sep + 1));
+        }
+
+        int pageSize = limit == null ? Integer.MAX_VALUE : Math.max(1, Math.min(limit, MAX_PAGE));
+        // one extra row tells us whether there is a next page
+        Pageable page = limit == null ? Pageable.unpaged() : PageRequest.ofSize(pageSize + 1);
+        List<TransactionDto> txs = transactionRepo.findPage(start, end, afterDate, afterId, page);
+
+        String nextCursor = null;
+        if (txs.size() > pageSize) {
+            txs = txs.subList(0, pageSize);
+            var last = txs.get(txs.size() - 1);
+            nextCursor = last.date() + "_" + last.id();
+        }
+
+        // totals come from the rollup, not from summing the page
+        var totals = rollups.totals(ym);
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("month", month);
+        out.put("count", limit == null ? txs.size() : totals.count());
+        out.put("income", totals.income());
+        out.put("expenses", totals.expenses());
+        out.put("net", totals.income().subtract(totals.expenses()));
+        out.put("transactions", txs);
+        if (limit != null) out.put("nextCursor", nextCursor);
+        return out;
+    }
+
+    // Description search across all months, newest first, one keyset page at a time.
+    // match=substring (default) or prefix; from/to are dates (yyyy-MM-dd); amounts bound
+    // the magnitude. Pass `nextCursor` back as `cursor` for the next page.
+    @GetMapping("/search")
+    public Map<String, Object> search(@RequestParam(name = "q", required = false) String q,
+                                      @RequestParam(name = "match", defaultValue = "substring") String match,
+                                      @RequestParam(name = "from", required = false) String from,
+                                      @RequestParam(name = "to", required = false) String to,
+                                      @RequestParam(name = "minAmount", required = false) BigDecimal minAmount,
+                                      @RequestParam(name = "maxAmount", required = false) BigDecimal maxAmount,
+                                      @RequestParam(name = "limit", defaultValue = "50") int limit,
+                                      @RequestParam(name = "cursor", required = false) String cursor,
+                                      NativeWebRequest request) {
+        var mode = TransactionSearch.Match.valueOf(match.trim().toUpperCase());
+        int pageSize = Math.max(1, Math.min(limit, MAX_SEARCH_PAGE));
+        LocalDate afterDate = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int sep = cursor.indexOf('_');
+            if (sep < 0) throw new IllegalArgumentException("Bad cursor: " + cursor);
+            afterDate = LocalDate.parse(cursor.substring(0, sep));
+            afterId = Long.parseLong(cursor.substring(sep + 1));
+        }
+        // one extra row tells us whether there is a next page
+        var query = new TransactionSearch.Query(q, mode, parseDate(from), parseDate(to), minAmount, maxAmount,
+                afterDate, afterId, pageSize + 1);
+        return cached.forAll(request, "search", query.toString(), () -> {
+            List<TransactionDto> txs = search.search(query);
+            String nextCursor = null;
+            if (txs.size() > pageSize) {
+                txs = txs.subList(0, pageSize);
+                var last = txs.get(txs.size() - 1);
+                nextCursor = last.date() + "_" + last.id();
+            }
+            Map<String, Object> out = new LinkedHashMap<>();
+            out.put("q", q);
+            out.put("transactions", txs);
+            out.put("nextCursor", nextCursor);
+            return out;
+        });
+    }
+
+    private static LocalDate parseDate(String s) {
+        return s == null || s.isBlank() ? null : LocalDate.parse(s.trim()); // ISO "yyyy-MM-dd"
+    }
+
+    // Same document as listByMonth without paging, written row by row with Jackson's
+    // streaming generator while the DB cursor is read, so the month is never held in memory.
+    // Not kept in the response cache (that would defeat streaming), but still answers 304.
+    @GetMapping("/stream")
+    public ResponseEntity<StreamingResponseBody> streamByMonth(@RequestParam("month") String month,
+                                                               NativeWebRequest request) {
+        YearMonth ym = YearMonth.parse(month);
+        if (request.checkNotModified(versions.etag(ym))) return null;
+        var totals = lanes.read(() -> rollups.totals(ym));
+
+        var readOnly = new TransactionTemplate(tx.getTransactionManager());
+        readOnly.setReadOnly(true);
+        // the cursor holds a connection for as long as the client reads, so it takes a permit
+        // in the stream lane rather than the read lane's short queries
+        StreamingResponseBody body = streams.inStreamLane(request, out -> readOnly.execute(status -> {
+            try (JsonGenerator gen = mapper.createGenerator(out);
+                 var rows = transactionRepo.streamRange(ym.atDay(1), ym.atEndOfMonth())) {
+                gen.writeStartObject();
+                gen.writeStringField("month", month);
+                gen.writeNumberField("income", totals.income());
+                gen.writeNumberField("expenses", totals.expenses());
+                gen.writeNumberField("net", totals.income().subtract(totals.expenses()));
+                gen.writeArrayFieldStart("transactions");
+                int[] count = {0};
+                rows.forEach(t -> {
+                    try {
+                        gen.writeObject(t);
+                        count[0]++;
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                gen.writeEndArray();
+                gen.writeNumberField("count", count[0]);
+                gen.writeEndObject();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return null;
+        }));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    // The statement row a transaction was imported from, as the JSON object it was stored as
+    // (header -> cell). Kept out of the list endpoints; this is the only place that reads it.
+    @GetMapping("/{id}/raw")
+    public ResponseEntity<String> raw(@PathVariable long id) {
+        String raw = lanes.read(() -> rawRows.find(id))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "No source row for transaction " + id));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(raw);
     }
 }
@@ -9,8 +9,8 @@ public record ImportPreviewRow(
         BigDecimal amount,
         String suggestedCategory,
         String categoryGroup,   // ESSENTIAL / SURPLUS / DEBT / null for income
-        boolean duplicate,      // always false now (we removed de-dupe)
+        boolean duplicate,      // same content fingerprint already stored
         boolean inTargetMonth,
         String hash,
-        boolean wouldImport     // == inTargetMonth
+        boolean wouldImport     // inTargetMonth && !duplicate
 ) {}
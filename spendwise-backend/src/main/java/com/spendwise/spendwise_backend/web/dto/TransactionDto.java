@@ -0,0 +1,39 @@
+package com.spendwise.spendwise_backend.web.dto;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.Transaction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record TransactionDto(
+        Long id,
+        LocalDate date,
+        String description,
+        BigDecimal amount,
+        String category,
+        String group,
+        String hash
+) {
+    // target of the "select new ..." projections in TransactionRepo
+    public TransactionDto(Long id, LocalDate date, String description, BigDecimal amount,
+                          String category, CategoryGroup group, String hash) {
+        this(id, date, description, amount, category, group == null ? null : group.name(), hash);
+    }
+
+    public static TransactionDto from(Transaction t) {
+        String categoryName = (t.getCategory() != null) ? t.getCategory().getName() : null;
+        String groupName = (t.getCategory() != null && t.getCategory().getGroup() != null)
+                ? t.getCategory().getGroup().name()
+                : null;
+        return new TransactionDto(
+                t.getId(),
+                t.getPostedAt(),
+                t.getDescription(),
+                t.getAmount(),
+                categoryName,
+                groupName,
+                t.getHash()
+        );
+    }
+}
@@ -0,0 +1,45 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CsvDateFormatTest {
+
+	@Test
+	void dayAboveTwelveSettlesDayFirst() {
+		assertThat(CsvDateFormat.sniff(List.of("03/04/2025", "05/06/2025", "21/06/2025")))
+				.isEqualTo(CsvDateFormat.EU_SLASH);
+		assertThat(CsvDateFormat.sniff(List.of("03/04/2025", "06/21/2025")))
+				.isEqualTo(CsvDateFormat.US_SLASH);
+	}
+
+	@Test
+	void ambiguousSamplesKeepMonthFirst() {
+		assertThat(CsvDateFormat.sniff(List.of("3/4/2025", "5/6/2025"))).isEqualTo(CsvDateFormat.US_SLASH);
+	}
+
+	@Test
+	void parsesEachLayoutWithoutThrowing() {
+		LocalDate aug5 = LocalDate.of(2025, 8, 5);
+		assertThat(CsvDateFormat.ISO.parse(" 2025-08-05 ")).isEqualTo(aug5);
+		assertThat(CsvDateFormat.US_SLASH.parse("8/5/2025")).isEqualTo(aug5);
+		assertThat(CsvDateFormat.EU_DASH.parse("05-08-2025")).isEqualTo(aug5);
+		assertThat(CsvDateFormat.MONTH_NAME.parse("Aug 5, 2025")).isEqualTo(aug5);
+
+		assertThat(CsvDateFormat.US_SLASH.parse("13/5/2025")).isNull();
+		assertThat(CsvDateFormat.US_SLASH.parse("2/30/2025")).isNull();
+		assertThat(CsvDateFormat.US_SLASH.parse("8/5/25")).isNull();
+		assertThat(CsvDateFormat.ISO.parse("bad")).isNull();
+		assertThat(CsvDateFormat.sniff(List.of("bad", ""))).isNull();
+	}
+
+	@Test
+	void fallsBackToAnyLayoutPerRow() {
+		assertThat(CsvDateFormat.parseAny("2025-08-05")).isEqualTo(LocalDate.of(2025, 8, 5));
+		assertThat(CsvDateFormat.parseAny("nope")).isNull();
+	}
+}
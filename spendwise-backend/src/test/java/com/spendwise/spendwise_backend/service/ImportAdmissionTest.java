@@ -0,0 +1,73 @@
+package com.spendwise.spendwise_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ImportAdmissionTest {
+
+	private static ImportAdmission admission(long maxRows, Duration queueWait) {
+		return new ImportAdmission(maxRows, 100, queueWait, Duration.ofSeconds(10), new SimpleMeterRegistry());
+	}
+
+	@Test
+	void aLoneImportIsAdmittedWhateverItsSize() {
+		var admission = admission(1000, Duration.ZERO);
+		try (var big = admission.admitBytes(10_000_000)) {
+			assertThat(admission.inFlight()).isEqualTo(100_000);
+		}
+		assertThat(admission.inFlight()).isZero();
+	}
+
+	@Test
+	void refusesWithRetryAfterOnceTheQueueWaitIsOver() {
+		var admission = admission(1000, Duration.ofMillis(50));
+		try (var first = admission.admitRows(800)) {
+			assertThatThrownBy(() -> admission.admitRows(300))
+					.isInstanceOfSatisfying(BusyException.class, e -> {
+						assertThat(e.getLane()).isEqualTo(BusyException.Lane.IMPORT);
+						assertThat(e.getRetryAfter()).isEqualTo(Duration.ofSeconds(10));
+					});
+			// still fits
+			admission.admitRows(200).close();
+		}
+	}
+
+	@Test
+	void queuedImportsGoInWhenCapacityFrees() throws Exception {
+		var admission = admission(1000, Duration.ofMillis(50));
+		var first = admission.admitRows(800);
+		var queued = CompletableFuture.supplyAsync(() -> admission.admitBytesQueued(50_000, Duration.ofMinutes(1), () -> false));
+		Thread.sleep(100);
+		assertThat(queued).isNotDone();
+
+		first.close();
+		first.close(); // closing twice releases once
+		try (var ticket = queued.get(5, TimeUnit.SECONDS)) {
+			assertThat(admission.inFlight()).isEqualTo(500);
+		}
+	}
+
+	@Test
+	void aCancelledJobStopsWaiting() throws Exception {
+		var admission = admission(1000, Duration.ofMillis(50));
+		var cancelled = new AtomicBoolean();
+		try (var first = admission.admitRows(800)) {
+			var queued = CompletableFuture.supplyAsync(() -> admission.admitBytesQueued(50_000, Duration.ofMinutes(1), cancelled::get));
+			Thread.sleep(100);
+			cancelled.set(true);
+			admission.wakeWaiters();
+			assertThatThrownBy(() -> queued.get(5, TimeUnit.SECONDS))
+					.hasCauseInstanceOf(CancellationException.class);
+			assertThat(admission.inFlight()).isEqualTo(800);
+		}
+	}
+}
@@ -0,0 +1,45 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KeywordMatcherTest {
+
+	private final KeywordMatcher<String> matcher = KeywordMatcher.<String>builder()
+			.add("card payment", "Credit Card Payment")
+			.add("emi", "Debt Repayment")
+			.add("uber", "Transport")
+			.add("att", "Internet")
+			.add("starbucks", "Coffee")
+			.add("amazon", "Shopping")
+			.build();
+
+	@Test
+	void earliestAddedKeywordWinsRegardlessOfPosition() {
+		// "att" occurs first in the text, but "emi" was added earlier
+		assertThat(matcher.firstMatch("ATT PREMIUM")).isEqualTo("Debt Repayment");
+		assertThat(matcher.firstMatch("Amazon card payment")).isEqualTo("Credit Card Payment");
+	}
+
+	@Test
+	void matchesCaseInsensitiveSubstrings() {
+		assertThat(matcher.firstMatch("UBER *TRIP 1234")).isEqualTo("Transport");
+		assertThat(matcher.firstMatch("Seattle Starbucks")).isEqualTo("Internet");
+		assertThat(matcher.firstMatch("STARBUCKS #42")).isEqualTo("Coffee");
+	}
+
+	@Test
+	void followsFailureLinksAcrossOverlappingPrefixes() {
+		var m = KeywordMatcher.<String>builder().add("abcd", "long").add("bc", "short").build();
+		assertThat(m.firstMatch("xabcx")).isEqualTo("short");
+		assertThat(m.firstMatch("abcd")).isEqualTo("long");
+	}
+
+	@Test
+	void returnsNullWithoutMatch() {
+		assertThat(matcher.firstMatch("Salary")).isNull();
+		assertThat(matcher.firstMatch(null)).isNull();
+		assertThat(KeywordMatcher.<String>builder().build().firstMatch("uber")).isNull();
+	}
+}
@@ -0,0 +1,58 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.MerchantCategory;
+import com.spendwise.spendwise_backend.repo.MerchantCategoryRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class MerchantMemoTest {
+
+	private static final WorkloadLanes LANES =
+			new WorkloadLanes(1, 1, 1, 1, Duration.ofSeconds(1), new SimpleMeterRegistry());
+
+	private static MerchantCategory taught(String merchant, String category) {
+		return new MerchantCategory(merchant, category, CategoryGroup.ESSENTIAL, Instant.now());
+	}
+
+	@Test
+	void untaughtMerchantsAreAskedOnceAndDoNotEvictTaughtOnes() {
+		MerchantCategoryRepo repo = mock(MerchantCategoryRepo.class);
+		when(repo.findByOrderByUpdatedAtDesc(any())).thenReturn(List.of(taught("lyft", "Rides")));
+		when(repo.findById(anyString())).thenReturn(Optional.empty());
+		var memo = new MerchantMemo(repo, LANES, new SimpleMeterRegistry(), 1, 2, Duration.ofHours(1));
+
+		for (int i = 0; i < 3; i++) {
+			assertThat(memo.lookup("NEW SHOP " + (char) ('A' + i))).isNull();
+		}
+		assertThat(memo.lookup("NEW SHOP A")).isNull();   // evicted from the untaught ones: asked again
+		assertThat(memo.lookup("NEW SHOP C")).isNull();   // still held
+		verify(repo, times(4)).findById(anyString());
+
+		assertThat(memo.lookup("LYFT").categoryName()).isEqualTo("Rides");
+	}
+
+	@Test
+	void picksUpWhatAnotherInstanceTaught() throws Exception {
+		MerchantCategoryRepo repo = mock(MerchantCategoryRepo.class);
+		when(repo.findByOrderByUpdatedAtDesc(any())).thenReturn(List.of());
+		when(repo.findById(anyString())).thenReturn(Optional.empty());
+		when(repo.findByUpdatedAtAfterOrderByUpdatedAt(any())).thenReturn(List.of(taught("lyft", "Rides")));
+		var memo = new MerchantMemo(repo, LANES, new SimpleMeterRegistry(), 10, 10, Duration.ofMillis(50));
+
+		assertThat(memo.lookup("LYFT")).isNull();
+		Thread.sleep(80);
+		assertThat(memo.lookup("LYFT").categoryName()).isEqualTo("Rides");
+		verify(repo, times(1)).findById("lyft");
+	}
+}
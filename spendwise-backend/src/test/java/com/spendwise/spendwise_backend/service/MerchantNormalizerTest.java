@@ -0,0 +1,27 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class MerchantNormalizerTest {
+
+	@Test
+	void storeNumbersDatesAndCardSuffixesDoNotChangeTheKey() {
+		assertThat(MerchantNormalizer.normalize("POS PURCHASE STARBUCKS #1234 08/12 CARD XX4411")).isEqualTo("starbucks");
+		assertThat(MerchantNormalizer.normalize("Starbucks Store 0977")).isEqualTo("starbucks");
+		assertThat(MerchantNormalizer.normalize("AMAZON MKTP US*2K1AB3CD4 2025-08-14")).isEqualTo("amazon mktp us");
+	}
+
+	@Test
+	void keepsShortNumbersThatArePartOfTheName() {
+		assertThat(MerchantNormalizer.normalize("7ELEVEN 33012")).isEqualTo("7eleven");
+		assertThat(MerchantNormalizer.normalize("Trader Joe's #552 Seattle WA")).isEqualTo("trader joes seattle");
+	}
+
+	@Test
+	void nothingMerchantLikeLeavesAnEmptyKey() {
+		assertThat(MerchantNormalizer.normalize("POS 0412 08/14 XXXX1234")).isEmpty();
+		assertThat(MerchantNormalizer.normalize(null)).isEmpty();
+	}
+}
@@ -0,0 +1,73 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MoneyParserTest {
+
+	private static final List<String> CORPUS = List.of(
+			"0", "12", "12.5", "12.50", "-12.50", "12.50-", "(12.50)", "+12.50", " 12.50 ",
+			"$1,234.56", "-$1,234.56", "$-1,234.56", "1,234.56-", "($1,234.56)", "€ 99.99", "£5", "₹ 1,00,000.00",
+			"1 234.56", "1 234.56", "\t42.1\t", ".5", "5.", "-.75", "0.004", "0.005", "-0.005",
+			"1.0049", "1.005", "2.675", "999999999.995", "12.345678", "( 7.00 )", "-0.00", "1 234 567.89");
+
+	private static final List<String> INVALID = List.of("", "   ", "-", "$", "abc", "1.2.3", "12a", "1-2");
+
+	@Test
+	void matchesLegacyCleanMoneyAtStoredPrecision() {
+		for (String s : CORPUS) {
+			BigDecimal expected = legacyCleanMoney(s).setScale(2, RoundingMode.HALF_UP);
+			assertThat(MoneyParser.toBigDecimal(MoneyParser.parseCents(s))).as(s).isEqualTo(expected);
+		}
+	}
+
+	@Test
+	void rejectsWhatLegacyRejected() {
+		for (String s : INVALID) {
+			assertThatThrownBy(() -> legacyCleanMoney(s)).as(s).isInstanceOf(NumberFormatException.class);
+			assertThatThrownBy(() -> MoneyParser.parseCents(s)).as(s).isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	@Test
+	void readsDecimalComma() {
+		assertThat(MoneyParser.parseCents("1.234,56", true)).isEqualTo(123456);
+		assertThat(MoneyParser.parseCents("-€ 1.234,5", true)).isEqualTo(-123450);
+		assertThat(MoneyParser.parseCents("(0,99)", true)).isEqualTo(-99);
+	}
+
+	@Test
+	void rejectsAmountsPastLongCents() {
+		assertThat(MoneyParser.parseCents("92233720368547758.07")).isEqualTo(Long.MAX_VALUE);
+		assertThat(MoneyParser.parseCents("-92233720368547758.07")).isEqualTo(-Long.MAX_VALUE);
+		for (String s : List.of("92233720368547758.08", "92233720368547758.075", "92233720368547759", "922337203685477580")) {
+			assertThatThrownBy(() -> MoneyParser.parseCents(s)).as(s).isInstanceOf(IllegalArgumentException.class);
+		}
+	}
+
+	// ImportService.cleanMoney as it was before MoneyParser, minus the forced-sign argument
+	private static BigDecimal legacyCleanMoney(String raw) {
+		String s = raw.trim();
+
+		boolean parenNeg = s.startsWith("(") && s.endsWith(")");
+		s = s.replace("(", "").replace(")", "");
+		s = s.replaceAll("[,$€£₹\\s\\u00A0\\u202F]", "");
+
+		boolean trailingMinus = s.endsWith("-");
+		if (trailingMinus) s = s.substring(0, s.length() - 1);
+
+		boolean leadingMinus = s.startsWith("-");
+		s = s.replace("+", "");
+		if (s.startsWith("-")) s = s.substring(1);
+
+		BigDecimal val = new BigDecimal(s);
+		boolean neg = parenNeg || trailingMinus || leadingMinus;
+		return neg ? val.negate() : val;
+	}
+}
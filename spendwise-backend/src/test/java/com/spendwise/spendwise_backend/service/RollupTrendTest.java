@@ -0,0 +1,56 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.repo.MonthlyRollupRepo;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RollupTrendTest {
+
+	private static Object[] row(String month, CategoryGroup group, String income, String expense) {
+		return new Object[]{YearMonth.parse(month).atDay(1), group, new BigDecimal(income), new BigDecimal(expense), 1L};
+	}
+
+	@Test
+	void averagesAndChangesStartAtTheFirstMonthWithData() {
+		MonthlyRollupRepo repo = mock(MonthlyRollupRepo.class);
+		when(repo.totalsByMonthAndGroup(any(LocalDate.class), any(LocalDate.class))).thenReturn(List.of(
+				row("2025-01", null, "1000.00", "0.00"),
+				row("2025-01", CategoryGroup.ESSENTIAL, "0.00", "300.00"),
+				row("2025-02", CategoryGroup.SURPLUS, "0.00", "100.00"),
+				row("2025-04", null, "1000.00", "0.00"),
+				row("2025-04", CategoryGroup.DEBT, "0.00", "500.00")));
+		var rollups = new RollupService(repo, null, null);
+
+		var trend = rollups.trend(YearMonth.of(2024, 12), YearMonth.of(2025, 4));
+
+		assertThat(trend).extracting(RollupService.MonthTrend::month).containsExactly(
+				YearMonth.of(2024, 12), YearMonth.of(2025, 1), YearMonth.of(2025, 2),
+				YearMonth.of(2025, 3), YearMonth.of(2025, 4));
+
+		// before any data: zeros, no change
+		assertThat(trend.get(0).totals().count()).isZero();
+		assertThat(trend.get(0).change()).isNull();
+		// first month with data: its own average, no change yet
+		var jan = trend.get(1);
+		assertThat(jan.totals().byGroup().get(CategoryGroup.ESSENTIAL)).isEqualByComparingTo("300");
+		assertThat(jan.avg3().net()).isEqualByComparingTo("700");
+		assertThat(jan.avg12().net()).isEqualByComparingTo("700");
+		assertThat(jan.change()).isNull();
+		// March is empty but still counts in the windows
+		var apr = trend.get(4);
+		assertThat(apr.avg3().net()).isEqualByComparingTo("133.33"); // (-100 + 0 + 500) / 3
+		assertThat(apr.avg12().expenses()).isEqualByComparingTo("225"); // (300 + 100 + 0 + 500) / 4
+		assertThat(apr.change().net()).isEqualByComparingTo("500");
+		assertThat(trend.get(2).change().net()).isEqualByComparingTo("-800");
+	}
+}
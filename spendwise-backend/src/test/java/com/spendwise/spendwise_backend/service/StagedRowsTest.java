@@ -0,0 +1,85 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.Category;
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class StagedRowsTest {
+
+	private static final Category FOOD = Category.builder()
+			.id(7L).name("Food").isIncome(false).group(CategoryGroup.ESSENTIAL).build();
+
+	@Test
+	void spilledRowsReadBackInOrderAndTheFileGoesOnClose() throws Exception {
+		long tempFiles = previewTempFiles();
+		List<StagedRow> written = new ArrayList<>();
+		StagedRows rows = new StagedRows(2);
+		for (int i = 0; i < 5; i++) {
+			StagedRow r = new StagedRow(i + 2, LocalDate.of(2025, 8, i + 1), "Café " + i, -1050L * i, FOOD,
+					i == 3 ? null : "{\"Description\":\"Café " + i + "\"}", "h" + i, "f" + i);
+			written.add(r);
+			rows.add(r);
+		}
+		rows.seal();
+		assertThat(rows.spilled()).isTrue();
+		assertThat(rows.size()).isEqualTo(5);
+
+		List<StagedRow> read = new ArrayList<>();
+		rows.forEach(read::add);
+		assertThat(read).extracting(StagedRow::line, StagedRow::date, StagedRow::desc, StagedRow::cents,
+						StagedRow::raw, StagedRow::hash, StagedRow::fingerprint)
+				.containsExactlyElementsOf(written.stream()
+						.map(r -> tuple(r.line(), r.date(), r.desc(), r.cents(),
+								r.raw(), r.hash(), r.fingerprint()))
+						.toList());
+		assertThat(read).allSatisfy(r -> {
+			assertThat(r.categoryName()).isEqualTo("Food");
+			assertThat(r.income()).isFalse();
+			assertThat(r.group()).isEqualTo(CategoryGroup.ESSENTIAL);
+		});
+
+		assertThat(previewTempFiles()).isEqualTo(tempFiles + 1);
+		rows.close();
+		assertThat(previewTempFiles()).isEqualTo(tempFiles);
+	}
+
+	@Test
+	void aCursorClosedPartwayReleasesTheFile() throws Exception {
+		long tempFiles = previewTempFiles();
+		StagedRows rows = new StagedRows(1);
+		for (int i = 0; i < 3; i++) {
+			rows.add(new StagedRow(i + 2, LocalDate.of(2025, 8, 1), "x" + i, 1, FOOD, null, "h" + i, "f" + i));
+		}
+		rows.seal();
+		try (StagedRows.Cursor cursor = rows.iterator()) {
+			assertThat(cursor.next().desc()).isEqualTo("x0");
+		}
+		rows.close();
+		assertThat(previewTempFiles()).isEqualTo(tempFiles);
+	}
+
+	@Test
+	void smallPreviewsStayInMemory() throws Exception {
+		StagedRows rows = new StagedRows(10);
+		rows.add(new StagedRow(2, LocalDate.of(2025, 8, 1), "x", 1, FOOD, null, "h", "f"));
+		rows.seal();
+		assertThat(rows.spilled()).isFalse();
+		assertThat(rows).hasSize(1);
+		rows.close();
+	}
+
+	private static long previewTempFiles() throws Exception {
+		try (var files = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+			return files.filter(p -> p.getFileName().toString().startsWith("spendwise-preview-")).count();
+		}
+	}
+}
@@ -0,0 +1,34 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// One guess() per op: keyword scan of the description plus the category cache lookup.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategorizationBenchmark {
+
+    private CategorizationService categorization;
+    private String[] descriptions;
+    private int next;
+
+    @Setup
+    public void setup() {
+        categorization = Stubs.categorization(Stubs.categoryCache());
+        Random r = new Random(42);
+        descriptions = new String[4096];
+        for (int i = 0; i < descriptions.length; i++) descriptions[i] = Statements.description(r);
+    }
+
+    @Benchmark
+    public Object guess() {
+        String d = descriptions[next++ & (descriptions.length - 1)];
+        return categorization.guess(d);
+    }
+}
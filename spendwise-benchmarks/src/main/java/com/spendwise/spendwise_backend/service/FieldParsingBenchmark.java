@@ -0,0 +1,121 @@
+package com.spendwise.spendwise_backend.service;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+// Per-cell costs of the import path, each current implementation next to the helper it
+// replaced (Legacy). Every op handles one cell/row of a 1024-entry corpus.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FieldParsingBenchmark {
+
+    private static final int N = 1024;
+
+    private String[] usDates, isoDates, amounts, hashInputs;
+    private List<Map<String, String>> rowMaps;
+    private String[][] rowArrays;
+    private ColumnMapping columns;
+    private int next;
+
+    @Setup
+    public void setup() {
+        Random r = new Random(7);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        usDates = new String[N];
+        isoDates = new String[N];
+        amounts = new String[N];
+        hashInputs = new String[N];
+        rowMaps = new ArrayList<>(N);
+        rowArrays = new String[N][];
+        String[] header = {"Posted Date", "Description", "Amount", "Balance"};
+        columns = ColumnMapping.resolve(header, null);
+        for (int i = 0; i < N; i++) {
+            LocalDate d = start.plusDays(r.nextInt(365));
+            usDates[i] = Statements.usDate(d);
+            isoDates[i] = d.toString();
+            amounts[i] = Statements.amount(r);
+            String desc = Statements.description(r);
+            hashInputs[i] = d + "|" + desc + "|" + amounts[i] + "|" + i;
+            rowArrays[i] = new String[]{usDates[i], desc, amounts[i], "100.00"};
+            // readMap() handed out a HashMap keyed by the raw header
+            Map<String, String> m = new HashMap<>();
+            for (int c = 0; c < header.length; c++) m.put(header[c], rowArrays[i][c]);
+            rowMaps.add(m);
+        }
+    }
+
+    private int i() {
+        return next++ & (N - 1);
+    }
+
+    /* ---------- dates: US layout is the old parser's worst common case ---------- */
+
+    @Benchmark
+    public LocalDate legacyParseDateUs() {
+        return Legacy.parseDateFlexible(usDates[i()]);
+    }
+
+    @Benchmark
+    public LocalDate parseDateUs() {
+        return CsvDateFormat.US_SLASH.parse(usDates[i()]);
+    }
+
+    @Benchmark
+    public LocalDate legacyParseDateIso() {
+        return Legacy.parseDateFlexible(isoDates[i()]);
+    }
+
+    @Benchmark
+    public LocalDate parseDateIso() {
+        return CsvDateFormat.ISO.parse(isoDates[i()]);
+    }
+
+    /* ---------- amounts ---------- */
+
+    @Benchmark
+    public Object legacyCleanMoney() {
+        return Legacy.cleanMoney(amounts[i()], null);
+    }
+
+    @Benchmark
+    public long parseCents() {
+        return MoneyParser.parseCents(amounts[i()]);
+    }
+
+    /* ---------- header lookups: all five fields of one row ---------- */
+
+    @Benchmark
+    public void legacyNormalizeKeysAndPick(Blackhole bh) {
+        Map<String, String> row = Legacy.normalizeKeys(rowMaps.get(i()));
+        bh.consume(Legacy.pick(row, "date", "posted date", "transaction date"));
+        bh.consume(Legacy.pick(row, "description", "details", "memo", "narrative", "name", "payee"));
+        bh.consume(Legacy.pick(row, "amount", "transaction amount", "amt"));
+        bh.consume(Legacy.pick(row, "credit", "cr"));
+        bh.consume(Legacy.pick(row, "debit", "dr", "withdrawal"));
+    }
+
+    @Benchmark
+    public void columnMapping(Blackhole bh) {
+        String[] row = rowArrays[i()];
+        bh.consume(columns.date(row));
+        bh.consume(columns.description(row));
+        bh.consume(columns.amount(row));
+        bh.consume(columns.credit(row));
+        bh.consume(columns.debit(row));
+    }
+
+    /* ---------- row hash ---------- */
+
+    @Benchmark
+    public String sha256() throws Exception {
+        return Legacy.sha256(hashInputs[i()]);
+    }
+}
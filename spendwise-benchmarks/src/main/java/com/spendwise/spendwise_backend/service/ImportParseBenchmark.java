@@ -0,0 +1,56 @@
+package com.spendwise.spendwise_backend.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// A whole dry-run import per op: read, parse, categorize, fingerprint and dedupe every
+// row of a synthetic statement. Nothing is written, so no database is involved; divide
+// the score by `rows` for the per-row cost.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ImportParseBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    public int rows;
+
+    private byte[] csv;
+    private ImportService importService;
+    private PreviewSessions sessions;
+    private final ImportOptions preview =
+            new ImportOptions(null, true, "debit", Map.of(), Map.of(), Map.of(), Set.of(), false, null);
+
+    @Setup(Level.Trial)
+    public void setup() {
+        csv = Statements.csv(rows, 42);
+        CategoryCache categories = Stubs.categoryCache();
+        // dry runs never reach the writer, the rollups or the transaction template
+        sessions = new PreviewSessions(Duration.ofMinutes(30), 20, 20000);
+        importService = new ImportService(null, Stubs.emptyTransactions(),
+                Stubs.categorization(categories), categories, null, null,
+                new ImportMetrics(new SimpleMeterRegistry()),
+                sessions, Stubs.lanes(), 1000, 256, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        importService.shutdown();
+    }
+
+    @Benchmark
+    public Map<String, Object> dryRunImport() throws Exception {
+        Map<String, Object> result = importService.importCsv(new ByteArrayInputStream(csv), preview);
+        // the staged rows are part of the cost; keeping them around past the op is not
+        sessions.discard((String) result.get("sessionId"));
+        return result;
+    }
+}
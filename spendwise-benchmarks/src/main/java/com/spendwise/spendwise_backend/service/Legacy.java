@@ -0,0 +1,76 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// The per-row helpers as ImportService had them before the parsing rewrite, kept verbatim
+// as the baseline the current code is measured against.
+final class Legacy {
+
+    private Legacy() {}
+
+    static LocalDate parseDateFlexible(String s) {
+        List<DateTimeFormatter> fmts = List.of(
+                DateTimeFormatter.ISO_LOCAL_DATE,
+                DateTimeFormatter.ofPattern("M/d/uuuu"),
+                DateTimeFormatter.ofPattern("d/M/uuuu"),
+                DateTimeFormatter.ofPattern("MM-dd-uuuu"),
+                DateTimeFormatter.ofPattern("dd-MM-uuuu"),
+                DateTimeFormatter.ofPattern("MMM d, uuuu")
+        );
+        for (var f : fmts) {
+            try { return LocalDate.parse(s.trim(), f); } catch (Exception ignored) {}
+        }
+        throw new IllegalArgumentException("Unrecognized date: " + s);
+    }
+
+    static BigDecimal cleanMoney(String raw, Boolean forceNegative) {
+        if (raw == null) throw new IllegalArgumentException("Empty amount");
+        String s = raw.trim();
+
+        boolean parenNeg = s.startsWith("(") && s.endsWith(")");
+        s = s.replace("(", "").replace(")", "");
+        s = s.replaceAll("[,$€£₹\\s\\u00A0\\u202F]", "");
+
+        boolean trailingMinus = s.endsWith("-");
+        if (trailingMinus) s = s.substring(0, s.length()-1);
+
+        boolean leadingMinus = s.startsWith("-");
+        s = s.replace("+", "");
+        if (s.startsWith("-")) s = s.substring(1);
+
+        BigDecimal val = new BigDecimal(s);
+        boolean neg = (forceNegative != null && forceNegative) || parenNeg || trailingMinus || leadingMinus;
+        return neg ? val.negate() : val;
+    }
+
+    static Map<String, String> normalizeKeys(Map<String, String> in) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (var e : in.entrySet()) {
+            if (e.getKey() == null) continue;
+            String k = e.getKey().replace("\uFEFF", "").trim().toLowerCase();
+            m.put(k, e.getValue());
+        }
+        return m;
+    }
+
+    static String pick(Map<String, String> row, String... keys) {
+        for (String k : keys) {
+            String v = row.get(k);
+            if (v != null && !v.isBlank()) return v;
+        }
+        return null;
+    }
+
+    // unchanged in ImportService, where it is private
+    static String sha256(String s) throws Exception {
+        var md = MessageDigest.getInstance("SHA-256");
+        return java.util.HexFormat.of().formatHex(md.digest(s.getBytes(StandardCharsets.UTF_8)));
+    }
+}
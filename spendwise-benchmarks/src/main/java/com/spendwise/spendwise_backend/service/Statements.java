@@ -0,0 +1,57 @@
+package com.spendwise.spendwise_backend.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Random;
+
+// Synthetic but statement-shaped data: real-looking merchant strings (most hit a default
+// rule, some don't), US dates, amounts with separators and the odd refund.
+final class Statements {
+
+    private Statements() {}
+
+    static final String[] MERCHANTS = {
+            "UBER *TRIP HELP.UBER.COM", "LYFT *RIDE SAT 8PM", "SHELL OIL 57442310", "EXXONMOBIL 4471",
+            "WHOLE FOODS MKT #10234", "TRADER JOE'S #552", "WAL-MART SUPERCENTER", "WALMART.COM 8009256278",
+            "COMCAST CABLE COMM", "XFINITY MOBILE", "AT&T *PAYMENT", "VERIZON WRLS P2P",
+            "STARBUCKS STORE 12345", "MCDONALD'S F1234", "CHIPOTLE ONLINE", "DOMINO'S PIZZA 8812",
+            "AMAZON MKTPL*2K4L19", "AMZN Mktp US*1A2B3C", "BEST BUY 00012345", "TARGET T-1234",
+            "CHASE CREDIT CARD PAYMENT", "ONLINE PAYMENT THANK YOU", "HONDA AUTO LOAN PMT", "SALLIE MAE STUDENT LOAN",
+            "ROCKET MORTGAGE", "NETFLIX.COM", "SPOTIFY USA", "CVS/PHARMACY #0923", "DELTA AIR 0062345",
+            "PAYROLL DEPOSIT ACME CORP", "VENMO CASHOUT", "ZELLE FROM J SMITH", "COSTCO WHSE #0481",
+    };
+
+    static String description(Random r) {
+        return MERCHANTS[r.nextInt(MERCHANTS.length)] + (r.nextInt(4) == 0 ? " " + (1000 + r.nextInt(9000)) : "");
+    }
+
+    static String amount(Random r) {
+        long cents = 100 + r.nextInt(r.nextInt(10) == 0 ? 500_000 : 15_000);
+        String s = String.format("%,d.%02d", cents / 100, cents % 100);
+        return switch (r.nextInt(10)) {
+            case 0 -> s;                  // refund / income
+            case 1 -> "(" + s + ")";
+            case 2 -> "$-" + s;
+            default -> "-" + s;
+        };
+    }
+
+    static String usDate(LocalDate d) {
+        return d.getMonthValue() + "/" + d.getDayOfMonth() + "/" + d.getYear();
+    }
+
+    // header + `rows` rows spread over one year, quoted the way bank exports do
+    static byte[] csv(int rows, long seed) {
+        Random r = new Random(seed);
+        LocalDate start = LocalDate.of(2024, 1, 1);
+        StringBuilder sb = new StringBuilder(rows * 64);
+        sb.append("Posted Date,Description,Amount,Balance\n");
+        for (int i = 0; i < rows; i++) {
+            sb.append(usDate(start.plusDays(r.nextInt(365)))).append(',')
+              .append('"').append(description(r)).append('"').append(',')
+              .append('"').append(amount(r)).append('"').append(',')
+              .append(r.nextInt(100_000)).append(".00\n");
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,135 @@
+package com.spendwise.spendwise_backend.service;
+
+import com.spendwise.spendwise_backend.model.Category;
+import com.spendwise.spendwise_backend.model.CategoryGroup;
+import com.spendwise.spendwise_backend.model.CategoryRule;
+import com.spendwise.spendwise_backend.repo.CategoryRepo;
+import com.spendwise.spendwise_backend.repo.CategoryRuleRepo;
+import com.spendwise.spendwise_backend.repo.MerchantCategoryRepo;
+import com.spendwise.spendwise_backend.repo.TransactionRepo;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// In-memory stand-ins for the Spring Data repositories the import path touches, so the
+// real services can be benchmarked without a database or an application context.
+final class Stubs {
+
+    private Stubs() {}
+
+    // The default rules from DataInitializer.seedRules, in the same order.
+    static final Object[][] DEFAULT_RULES = {
+            {"mortgage", "Mortgage", CategoryGroup.DEBT},
+            {"home loan", "Home Loan", CategoryGroup.DEBT},
+            {"car loan", "Car Loan", CategoryGroup.DEBT},
+            {"auto loan", "Car Loan", CategoryGroup.DEBT},
+            {"student loan", "Student Loan", CategoryGroup.DEBT},
+            {"personal loan", "Personal Loan", CategoryGroup.DEBT},
+            {"credit card payment", "Credit Card Payment", CategoryGroup.DEBT},
+            {"cc payment", "Credit Card Payment", CategoryGroup.DEBT},
+            {"card payment", "Credit Card Payment", CategoryGroup.DEBT},
+            {"emi", "Debt Repayment", CategoryGroup.DEBT},
+            {"installment", "Debt Repayment", CategoryGroup.DEBT},
+            {"uber", "Transport", CategoryGroup.ESSENTIAL},
+            {"lyft", "Transport", CategoryGroup.ESSENTIAL},
+            {"shell", "Fuel", CategoryGroup.ESSENTIAL},
+            {"exxon", "Fuel", CategoryGroup.ESSENTIAL},
+            {"whole foods", "Groceries", CategoryGroup.ESSENTIAL},
+            {"trader joe", "Groceries", CategoryGroup.ESSENTIAL},
+            {"walmart", "Groceries", CategoryGroup.ESSENTIAL},
+            {"comcast", "Internet", CategoryGroup.ESSENTIAL},
+            {"xfinity", "Internet", CategoryGroup.ESSENTIAL},
+            {"att", "Internet", CategoryGroup.ESSENTIAL},
+            {"verizon", "Internet", CategoryGroup.ESSENTIAL},
+            {"starbucks", "Coffee", CategoryGroup.SURPLUS},
+            {"mcdonald", "Eating Out", CategoryGroup.SURPLUS},
+            {"chipotle", "Eating Out", CategoryGroup.SURPLUS},
+            {"pizza", "Eating Out", CategoryGroup.SURPLUS},
+            {"amazon", "Shopping", CategoryGroup.SURPLUS},
+            {"best buy", "Shopping", CategoryGroup.SURPLUS},
+            {"target", "Shopping", CategoryGroup.SURPLUS},
+    };
+
+    static CategoryCache categoryCache() {
+        AtomicLong ids = new AtomicLong();
+        CategoryRepo repo = stub(CategoryRepo.class, (name, args) -> switch (name) {
+            case "findAll" -> new ArrayList<Category>();
+            case "findByNameIgnoreCase" -> Optional.empty();
+            case "save", "saveAndFlush" -> {
+                Category c = (Category) args[0];
+                c.setId(ids.incrementAndGet());
+                yield c;
+            }
+            default -> unsupported(name);
+        });
+        return new CategoryCache(repo, lanes(), new SimpleMeterRegistry());
+    }
+
+    static CategorizationService categorization(CategoryCache categories) {
+        List<CategoryRule> rules = new ArrayList<>();
+        int priority = 0;
+        for (Object[] r : DEFAULT_RULES) {
+            rules.add(CategoryRule.builder()
+                    .id((long) rules.size() + 1)
+                    .keyword((String) r[0])
+                    .categoryName((String) r[1])
+                    .group((CategoryGroup) r[2])
+                    .priority(priority += 10)
+                    .build());
+        }
+        CategoryRuleRepo repo = stub(CategoryRuleRepo.class, (name, args) -> switch (name) {
+            case "findAll" -> new ArrayList<>(rules);
+            default -> unsupported(name);
+        });
+        // nothing learned yet: every row goes through the rules
+        MerchantCategoryRepo merchants = stub(MerchantCategoryRepo.class, (name, args) -> switch (name) {
+            case "findByOrderByUpdatedAtDesc", "findByUpdatedAtAfterOrderByUpdatedAt" -> List.of();
+            case "findById" -> Optional.empty();
+            default -> unsupported(name);
+        });
+        var memo = new MerchantMemo(merchants, lanes(), new SimpleMeterRegistry(), 50_000, 50_000, Duration.ofMinutes(1));
+        // the rules never change during a run
+        var versions = new DataVersions(null, null, Duration.ofMinutes(1)) {
+            @Override
+            public long version(String name) {
+                return 0;
+            }
+        };
+        return new CategorizationService(categories, repo, memo, versions, new SimpleMeterRegistry());
+    }
+
+    // the stubs hold no connections; sized like the defaults
+    static WorkloadLanes lanes() {
+        return new WorkloadLanes(6, 3, 2, 2, Duration.ofSeconds(2), new SimpleMeterRegistry());
+    }
+
+    // an empty ledger: nothing is ever a duplicate of stored rows
+    static TransactionRepo emptyTransactions() {
+        return stub(TransactionRepo.class, (name, args) -> switch (name) {
+            case "findFingerprintsBetween" -> List.of();
+            default -> unsupported(name);
+        });
+    }
+
+    interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> type, Handler handler) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (self, m, args) ->
+                switch (m.getName()) {
+                    case "toString" -> "stub " + type.getSimpleName();
+                    case "hashCode" -> System.identityHashCode(self);
+                    case "equals" -> self == args[0];
+                    default -> handler.handle(m.getName(), args);
+                });
+        return type.cast(proxy);
+    }
+
+    private static Object unsupported(String method) {
+        throw new UnsupportedOperationException("not stubbed: " + method);
+    }
+}
@@ -77,6 +77,33 @@ export async function commitImport(
   return r.json();
 }
 
+// Commits what a preview already parsed; the file is not sent again.
+// Resolves to null when the session is gone (expired or already committed).
+export async function commitPreview(
+  sessionId,
+  overrides,
+  excludeHashes,
+  descOverrides,
+  groupOverrides
+) {
+  const r = await fetch(
+    `${BASE}/api/import/sessions/${encodeURIComponent(sessionId)}/commit`,
+    {
+      method: "POST",
+      headers: { "Content-Type": "application/json" },
+      body: JSON.stringify({
+        overrides: overrides || {},
+        descOverrides: descOverrides || {},
+        groupOverrides: groupOverrides || {},
+        exclude: excludeHashes || [],
+      }),
+    }
+  );
+  if (r.status === 404) return null;
+  if (!r.ok) throw new Error(await r.text());
+  return r.json();
+}
+
 export async function summaryByGroup(month) {
   const r = await fetch(
     `${BASE}/api/summary/monthly/by-group?month=${encodeURIComponent(month)}`
@@ -84,3 +111,53 @@ export async function summaryByGroup(month) {
   if (!r.ok) throw new Error("Failed to fetch summary");
   return r.json();
 }
+
+// Every month of [from, to] (YYYY-MM) in one request: totals, group split,
+// rolling 3/12-month averages and month-over-month change.
+export async function summaryTrend(from, to) {
+  const url = new URL(`${BASE}/api/summary/trend`);
+  url.searchParams.set("from", from);
+  url.searchParams.set("to", to);
+  const r = await fetch(url);
+  if (!r.ok) throw new Error("Failed to fetch trend");
+  return r.json();
+}
+
+// Several statements (or one .zip of them) in one request; per-file results plus totals.
+export async function importBatch(files, month, statementType, dryRun = true) {
+  const fd = new FormData();
+  for (const f of files) fd.append("files", f);
+  const url = new URL(`${BASE}/api/import/batch`);
+  url.searchParams.set("dryRun", String(dryRun));
+  if (month) url.searchParams.set("month", month);
+  if (statementType) url.searchParams.set("statementType", statementType);
+  const r = await fetch(url, { method: "POST", body: fd });
+  if (!r.ok) throw new Error(await r.text());
+  return r.json();
+}
+
+// Description search across all months, newest first. filters: { match: "substring"|"prefix",
+// from, to (YYYY-MM-DD), minAmount, maxAmount, limit }; pass the returned nextCursor as cursor.
+export async function searchTransactions(q, filters = {}, cursor) {
+  const url = new URL(`${BASE}/api/transactions/search`);
+  if (q) url.searchParams.set("q", q);
+  for (const [k, v] of Object.entries(filters)) {
+    if (v !== undefined && v !== null && v !== "") url.searchParams.set(k, v);
+  }
+  if (cursor) url.searchParams.set("cursor", cursor);
+  const r = await fetch(url);
+  if (!r.ok) throw new Error("Search failed");
+  return r.json();
+}
+
+// Download link for /api/export/transactions (the browser streams it to a file).
+// options: { from, to, format: "csv" | "ndjson", columns: [...], gzip }
+export function exportTransactionsUrl({ from, to, format, columns, gzip } = {}) {
+  const url = new URL(`${BASE}/api/export/transactions`);
+  if (from) url.searchParams.set("from", from);
+  if (to) url.searchParams.set("to", to);
+  if (format) url.searchParams.set("format", format);
+  if (columns && columns.length) url.searchParams.set("columns", columns.join(","));
+  if (gzip) url.searchParams.set("gzip", "true");
+  return url.toString();
+}
@@ -1,6 +1,6 @@
 // spendwise-frontend/src/components/UploadArea.jsx
 import { useEffect, useMemo, useRef, useState } from 'react'
-import { previewImport, commitImport, listCategories } from '../api'
+import { previewImport, commitImport, commitPreview, listCategories } from '../api'
 
 const GROUPS = ['ESSENTIAL','SURPLUS','DEBT']
 
@@ -28,7 +28,7 @@ export default function UploadArea({ month, onCommitted }) {
 
   const rows = preview?.rows || []
   const eligibleCount = useMemo(
-    () => rows.filter(r => r.inTargetMonth && !excluded[r.hash]).length,
+    () => rows.filter(r => r.wouldImport && !excluded[r.hash]).length,
     [rows, excluded]
   )
 
@@ -59,7 +59,7 @@ export default function UploadArea({ month, onCommitted }) {
       const initExcluded = {}
       for (const r of (data.rows || [])) {
         descRef.current[r.hash] = r.description || ''
-        if (!r.inTargetMonth) initExcluded[r.hash] = true
+        if (!r.wouldImport) initExcluded[r.hash] = true // out of month or already imported
       }
       setExcluded(initExcluded)
     } catch (e) {
@@ -80,9 +80,15 @@ export default function UploadArea({ month, onCommitted }) {
         if ((r.description || '') !== cur) descOverrides[r.hash] = cur
       }
 
-      const res = await commitImport(
-        file, month, overrides, statementType, excludeHashes, descOverrides, groupOverrides
-      )
+      // the preview's session holds the parsed rows; re-upload only if it has expired
+      let res = preview?.sessionId
+        ? await commitPreview(preview.sessionId, overrides, excludeHashes, descOverrides, groupOverrides)
+        : null
+      if (!res) {
+        res = await commitImport(
+          file, month, overrides, statementType, excludeHashes, descOverrides, groupOverrides
+        )
+      }
       setMessage(`Inserted ${res.inserted}, skipped ${res.skipped}.`)
       resetState(); onCommitted?.(month)
     } catch (e) {
@@ -215,7 +221,10 @@ export default function UploadArea({ month, onCommitted }) {
           <div className="hr" />
           <div className="flex-spread">
             <div className="h2">Preview</div>
-            <div className="small">{rows.length} rows · Eligible to insert: {eligibleCount}</div>
+            <div className="small">
+              {rows.length} rows · Eligible to insert: {eligibleCount}
+              {preview?.dateFormat && <> · Dates: {preview.dateFormat}</>}
+            </div>
           </div>
           <div style={{overflowX:'auto'}}>
             <table className="table">
@@ -250,7 +259,10 @@ export default function UploadArea({ month, onCommitted }) {
                       <td>{r.amount}</td>
                       <td><CategorySelect row={r} /></td>
                       <td><GroupSelect row={r} /></td>
-                      <td>{r.inTargetMonth ? <span className="badge ok">yes</span> : <span className="badge warn">no</span>}</td>
+                      <td>
+                        {r.inTargetMonth ? <span className="badge ok">yes</span> : <span className="badge warn">no</span>}
+                        {r.duplicate && <>&nbsp;<span className="badge warn">duplicate</span></>}
+                      </td>
                     </tr>
                   )
                 })}